@@ -0,0 +1,190 @@
+package searchengine.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import searchengine.crawler.CrawlEngine;
+
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "indexing-settings.crawler")
+public class CrawlerSettings {
+    private CrawlEngine engine = CrawlEngine.FORK_JOIN;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int maxConcurrency = 256;
+    private String fetcher = "http-client";
+    private Duration fetchTimeout = Duration.ofSeconds(10);
+    private String userAgent = "HeliontSearchBot/1.0 (+https://heliont.example.com/bot-info)";
+    private String referrer = "https://www.google.com";
+    private int nearDuplicateDistance = 3;
+    private boolean robotsEnabled = true;
+    private boolean sitemapsEnabled = true;
+    private int maxSitemapUrls = 50_000;
+    private DataSize maxBodySize = DataSize.ofMegabytes(5);
+    private List<String> contentTypes = List.of("text/html", "application/xhtml+xml");
+    private Duration checkpointInterval = Duration.ofSeconds(30);
+    private DataSize visitedSetMemory = DataSize.ofMegabytes(32);
+    private Budget budget = new Budget();
+    private Retry retry = new Retry();
+    private Circuit circuit = new Circuit();
+    private Pipeline pipeline = new Pipeline();
+    private Concurrency concurrency = new Concurrency();
+    private Buffers buffers = new Buffers();
+    private Recrawl recrawl = new Recrawl();
+    private Watchdog watchdog = new Watchdog();
+    private Cluster cluster = new Cluster();
+    private StaticRank staticRank = new StaticRank();
+    private Jobs jobs = new Jobs();
+
+    /**
+     * Общий на все сайты бюджет: одновременные загрузки, разбор/лемматизация и записи в БД.
+     */
+    @Getter
+    @Setter
+    public static class Budget {
+        private int fetchSlots = 64;
+        private int parseSlots = Runtime.getRuntime().availableProcessors();
+        private int dbSlots = 8;
+    }
+
+    /**
+     * Повтор неудачной загрузки: запрос возвращается в очередь, а хост выдерживает паузу base * 2^(n-1) с джиттером.
+     */
+    @Getter
+    @Setter
+    public static class Retry {
+        private int maxAttempts = 3;
+        private Duration baseDelay = Duration.ofMillis(500);
+        private Duration maxDelay = Duration.ofSeconds(60);
+    }
+
+    /**
+     * Размыкатель цепи на хост.
+     */
+    @Getter
+    @Setter
+    public static class Circuit {
+        private int failureThreshold = 5;
+        private Duration openDuration = Duration.ofSeconds(30);
+        private int maxTrips = 4;
+    }
+
+    /**
+     * Одновременные запросы к одному хосту (AIMD): растут на 1 за окно быстрых ответов,
+     * умножаются на decreaseFactor при 429/503 или росте задержки.
+     */
+    @Getter
+    @Setter
+    public static class Concurrency {
+        private int floor = 1;
+        private int ceiling = 16;
+        private int initial = 2;
+        private int window = 20;
+        private Duration latencyTarget = Duration.ofSeconds(3);
+        private double latencyGrowth = 4.0;
+        private double decreaseFactor = 0.5;
+        private Duration maxRetryAfter = Duration.ofMinutes(10);
+    }
+
+    /**
+     * Пул буферов чтения тел ответов: размер буфера и сколько свободных буферов держать.
+     */
+    @Getter
+    @Setter
+    public static class Buffers {
+        private DataSize bufferSize = DataSize.ofKilobytes(16);
+        private int maxPooled = 256;
+    }
+
+    /**
+     * Стадии конвейера после загрузки: потоки и длина очереди разбора/лемматизации и записи в БД.
+     */
+    @Getter
+    @Setter
+    public static class Pipeline {
+        private int parseThreads = Runtime.getRuntime().availableProcessors();
+        private int parseQueue = 64;
+        private int writeThreads = 4;
+        private int writeQueue = 64;
+    }
+
+    /**
+     * Фоновая перепроверка проиндексированных страниц. Интервал каждой страницы подстраивается под то,
+     * как часто она меняется, а общий трафик ограничен bandwidth байт в секунду.
+     */
+    @Getter
+    @Setter
+    public static class Recrawl {
+        private boolean enabled = true;
+        private Duration tick = Duration.ofSeconds(30);
+        private int batchSize = 100;
+        private DataSize bandwidth = DataSize.ofKilobytes(256);
+        private Duration initialInterval = Duration.ofDays(1);
+        private Duration minInterval = Duration.ofMinutes(5);
+        private Duration maxInterval = Duration.ofDays(30);
+        private double changedFactor = 0.5;
+        private double unchangedFactor = 1.5;
+    }
+
+    /**
+     * Поиск зависших задач обхода: задача дольше stuckThreshold пишется в лог со стеком потока
+     * и, если включено cancelStuck, отменяется. Проверка идёт с интервалом checkpointInterval.
+     */
+    @Getter
+    @Setter
+    public static class Watchdog {
+        private Duration stuckThreshold = Duration.ofMinutes(5);
+        private boolean cancelStuck = true;
+        private int stackDepth = 12;
+    }
+
+    /**
+     * Распределённый обход несколькими узлами через аренды сайтов в таблице crawl_lease.
+     * Узел продлевает свои аренды каждые heartbeatInterval; аренда, не продлённая за leaseTtl,
+     * достаётся другому узлу и продолжается с контрольной точки. Пустой nodeId — pid@host процесса.
+     */
+    @Getter
+    @Setter
+    public static class Cluster {
+        private boolean enabled = false;
+        private String nodeId = "";
+        private Duration leaseTtl = Duration.ofSeconds(60);
+        private Duration heartbeatInterval = Duration.ofSeconds(15);
+        private Duration pollInterval = Duration.ofSeconds(10);
+        private int maxSites = 4;
+    }
+
+    /**
+     * PageRank по графу ссылок сайта, пересчитываемый после каждого завершённого обхода.
+     * Поиск оценивает только (offset + limit) × candidateFactor кандидатов с наибольшим рангом.
+     */
+    @Getter
+    @Setter
+    public static class StaticRank {
+        private boolean enabled = true;
+        private double damping = 0.85;
+        private int maxIterations = 50;
+        private double tolerance = 1e-6;
+        private int candidateFactor = 5;
+    }
+
+    /**
+     * Очередь заданий индексации: число одновременно выполняемых заданий и предел очереди,
+     * после которого новые задания отклоняются.
+     */
+    @Getter
+    @Setter
+    public static class Jobs {
+        private int workers = 2;
+        private int queueCapacity = 100;
+        private Duration pollInterval = Duration.ofSeconds(1);
+        private int historySize = 50;
+    }
+}
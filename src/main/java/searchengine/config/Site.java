@@ -2,10 +2,24 @@ package searchengine.config;
 
 import lombok.Getter;
 import lombok.Setter;
+import searchengine.crawler.CrawlPriority;
+
+import java.time.Duration;
+import java.util.List;
 
 @Setter
 @Getter
 public class Site {
     private String url;
     private String name;
+    private double crawlRate = 2.0;
+    private int crawlBurst = 2;
+    private Duration minDelay = Duration.ofMillis(250);
+    private int weight = 1;
+    private int maxDepth = -1;
+    private int maxPages = -1;
+    private List<String> include = List.of();
+    private List<String> exclude = List.of();
+    private CrawlPriority priority = CrawlPriority.SHALLOW_PATH;
+    private List<String> priorityPaths = List.of();
 }
@@ -3,14 +3,22 @@ package searchengine.controllers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import searchengine.dto.CrawlerStateDto;
+import searchengine.dto.HostHealthDto;
 import searchengine.dto.IndexResponse;
+import searchengine.dto.JobDto;
+import searchengine.dto.JobResponse;
+import searchengine.dto.JobStatsDto;
+import searchengine.dto.PipelineStageDto;
 import searchengine.dto.SearchResponse;
 import searchengine.dto.statistics.StatisticsResponse;
+import searchengine.services.interfaces.JobService;
 import searchengine.services.interfaces.SearchService;
 import searchengine.services.interfaces.SiteIndexingService;
 import searchengine.services.interfaces.StatisticsService;
 
 import java.io.IOException;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api")
@@ -19,12 +27,15 @@ public class ApiController {
     private final StatisticsService statisticsService;
     private final SiteIndexingService siteIndexingService;
     private final SearchService searchService;
+    private final JobService jobService;
 
     @Autowired
-    public ApiController(StatisticsService statisticsService, SiteIndexingService siteIndexingService, SearchService searchService) {
+    public ApiController(StatisticsService statisticsService, SiteIndexingService siteIndexingService,
+                         SearchService searchService, JobService jobService) {
         this.statisticsService = statisticsService;
         this.siteIndexingService = siteIndexingService;
         this.searchService = searchService;
+        this.jobService = jobService;
     }
 
     @GetMapping("/statistics")
@@ -39,6 +50,64 @@ public class ApiController {
     public ResponseEntity<IndexResponse> stopIndexing(){
         return ResponseEntity.ok(siteIndexingService.stopFullIndexing());
     }
+    @GetMapping("/resumeIndexing")
+    public ResponseEntity<IndexResponse> resumeIndexing() {
+        return ResponseEntity.ok(siteIndexingService.resumeIndexing());
+    }
+    @PostMapping("/sites/start")
+    public ResponseEntity<IndexResponse> startSite(@RequestParam(name = "url", defaultValue = "") String url) {
+        return ResponseEntity.ok(siteIndexingService.startSiteIndexing(url));
+    }
+    @PostMapping("/sites/stop")
+    public ResponseEntity<IndexResponse> stopSite(@RequestParam(name = "url", defaultValue = "") String url) {
+        return ResponseEntity.ok(siteIndexingService.stopSiteIndexing(url));
+    }
+    @PostMapping("/sites/pause")
+    public ResponseEntity<IndexResponse> pauseSite(@RequestParam(name = "url", defaultValue = "") String url) {
+        return ResponseEntity.ok(siteIndexingService.pauseSiteIndexing(url));
+    }
+    @PostMapping("/sites/resume")
+    public ResponseEntity<IndexResponse> resumeSite(@RequestParam(name = "url", defaultValue = "") String url) {
+        return ResponseEntity.ok(siteIndexingService.resumeSiteIndexing(url));
+    }
+    @GetMapping("/hosts")
+    public ResponseEntity<List<HostHealthDto>> hosts() {
+        return ResponseEntity.ok(siteIndexingService.getHostHealth());
+    }
+    @GetMapping("/pipeline")
+    public ResponseEntity<List<PipelineStageDto>> pipeline() {
+        return ResponseEntity.ok(siteIndexingService.getPipelineStages());
+    }
+    @GetMapping("/crawler")
+    public ResponseEntity<CrawlerStateDto> crawler() {
+        return ResponseEntity.ok(siteIndexingService.getCrawlerState());
+    }
+    @PostMapping("/crawler/cancel")
+    public ResponseEntity<IndexResponse> cancelFetch(@RequestParam(name = "url", defaultValue = "") String url) {
+        return ResponseEntity.ok(siteIndexingService.cancelFetch(url));
+    }
+    @PostMapping("/jobs")
+    public ResponseEntity<JobResponse> submitJob(@RequestParam(name = "type", defaultValue = "") String type,
+                                                 @RequestParam(name = "url", required = false) List<String> urls,
+                                                 @RequestParam(name = "priority", required = false) Integer priority) {
+        return ResponseEntity.ok(jobService.submit(type, urls, priority));
+    }
+    @GetMapping("/jobs")
+    public ResponseEntity<List<JobDto>> jobs(@RequestParam(name = "status", defaultValue = "") String status) {
+        return ResponseEntity.ok(jobService.getJobs(status));
+    }
+    @GetMapping("/jobs/stats")
+    public ResponseEntity<JobStatsDto> jobStats() {
+        return ResponseEntity.ok(jobService.getStats());
+    }
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<JobResponse> job(@PathVariable("id") int id) {
+        return ResponseEntity.ok(jobService.getJob(id));
+    }
+    @PostMapping("/jobs/{id}/cancel")
+    public ResponseEntity<IndexResponse> cancelJob(@PathVariable("id") int id) {
+        return ResponseEntity.ok(jobService.cancel(id));
+    }
     @PostMapping("/indexPage")
     public  ResponseEntity<IndexResponse> indexPage(@RequestParam(name = "url", defaultValue = "")String url) throws IOException {
         return ResponseEntity.ok(siteIndexingService.indexPage(url));
@@ -0,0 +1,144 @@
+package searchengine.crawler;
+
+import searchengine.config.CrawlerSettings;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Число одновременных запросов к хосту по схеме AIMD: после каждого окна ответов с нормальной
+ * задержкой лимит растёт на единицу, при 429/503 или росте p90 задержки — умножается на decrease-factor.
+ * Лимит не выходит за [floor, ceiling]. Задержка оценивается по p50/p90 последних {@code window} ответов,
+ * а «нормальная» p90 — это не больше latency-target и не больше latency-growth × лучшая p50 хоста.
+ */
+public class AimdLimit {
+
+    private final CrawlerSettings.Concurrency settings;
+    private final long[] samples;
+    private int sampleCount;
+    private int nextSample;
+    private int sinceAdjust;
+    private int grace;
+    private double limit;
+    private int inFlight;
+    private long bestP50 = Long.MAX_VALUE;
+    private long p90;
+    private final Set<Runnable> waiters = new LinkedHashSet<>();
+
+    public AimdLimit(CrawlerSettings.Concurrency settings) {
+        this.settings = settings;
+        this.samples = new long[Math.max(4, settings.getWindow())];
+        this.limit = Math.clamp(settings.getInitial(), floor(), ceiling());
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Как {@link #tryAcquire()}, но при отказе запоминает onAvailable: он будет вызван один раз
+     * при ближайшем возврате разрешения.
+     */
+    public synchronized boolean tryAcquire(Runnable onAvailable) {
+        if (tryAcquire()) {
+            return true;
+        }
+        waiters.add(onAvailable);
+        return false;
+    }
+
+    public void release() {
+        synchronized (this) {
+            if (inFlight > 0) {
+                inFlight--;
+            }
+        }
+        wakeWaiters();
+    }
+
+    /**
+     * Будит всех ожидающих разрешения, например когда состояние хоста сброшено и лимит заменён новым.
+     */
+    public void wakeWaiters() {
+        List<Runnable> callbacks;
+        synchronized (this) {
+            if (waiters.isEmpty()) {
+                return;
+            }
+            callbacks = new ArrayList<>(waiters);
+            waiters.clear();
+        }
+        callbacks.forEach(Runnable::run);
+    }
+
+    /**
+     * Успешный ответ: задержка попадает в окно, и после заполнения окна лимит пересматривается.
+     */
+    public synchronized void onResponse(long latencyNanos) {
+        if (grace > 0) grace--;
+        samples[nextSample] = latencyNanos;
+        nextSample = (nextSample + 1) % samples.length;
+        sampleCount = Math.min(sampleCount + 1, samples.length);
+        if (++sinceAdjust < Math.max(samples.length, (int) limit)) {
+            return;
+        }
+        long[] window = Arrays.copyOf(samples, sampleCount);
+        Arrays.sort(window);
+        long p50 = window[(window.length - 1) / 2];
+        p90 = window[(int) Math.ceil(window.length * 0.9) - 1];
+        bestP50 = Math.min(bestP50, p50);
+        boolean slow = p90 > settings.getLatencyTarget().toNanos()
+                || p90 > bestP50 * settings.getLatencyGrowth();
+        if (slow) {
+            decrease();
+        } else {
+            limit = Math.min(ceiling(), limit + 1);
+            sinceAdjust = 0;
+        }
+    }
+
+    /**
+     * Хост просит снизить нагрузку. Ответы на запросы, отправленные ещё при старом лимите,
+     * лимит повторно не уменьшают.
+     */
+    public synchronized void onThrottled() {
+        if (grace > 0) {
+            grace--;
+            return;
+        }
+        decrease();
+    }
+
+    public synchronized int limit() {
+        return (int) limit;
+    }
+
+    public synchronized int inFlight() {
+        return inFlight;
+    }
+
+    public synchronized double p90Ms() {
+        return p90 / 1_000_000.0;
+    }
+
+    private void decrease() {
+        limit = Math.max(floor(), limit * settings.getDecreaseFactor());
+        sinceAdjust = 0;
+        grace = Math.max(0, inFlight - 1);
+    }
+
+    private int floor() {
+        return Math.max(1, settings.getFloor());
+    }
+
+    private int ceiling() {
+        return Math.max(floor(), settings.getCeiling());
+    }
+}
@@ -0,0 +1,67 @@
+package searchengine.crawler;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Отдаёт не больше {@code limit} байт, остаток тела не читается. На границе лимита читается
+ * ещё один байт, чтобы отличить тело ровно в лимит от обрезанного: см. {@link #exceeded()}.
+ */
+class BoundedInputStream extends FilterInputStream {
+
+    private long remaining;
+    private boolean exceeded;
+
+    BoundedInputStream(InputStream in, long limit) {
+        super(in);
+        this.remaining = limit;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (remaining <= 0) return overflow();
+        int b = super.read();
+        if (b >= 0) remaining--;
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (remaining <= 0) return overflow();
+        int n = super.read(buffer, offset, (int) Math.min(length, remaining));
+        if (n > 0) remaining -= n;
+        return n;
+    }
+
+    /**
+     * Тело длиннее лимита: после {@code limit} байт в исходном потоке остались данные.
+     */
+    boolean exceeded() {
+        return exceeded;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(Math.min(n, remaining));
+        remaining -= skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int) Math.min(super.available(), remaining);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private int overflow() throws IOException {
+        if (!exceeded && in.read() >= 0) {
+            exceeded = true;
+        }
+        return -1;
+    }
+}
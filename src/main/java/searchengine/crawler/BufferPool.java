@@ -0,0 +1,70 @@
+package searchengine.crawler;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import searchengine.config.CrawlerSettings;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Пул буферов чтения тел ответов. Буфер берётся на время разбора одной страницы и возвращается,
+ * поэтому число выделений не зависит от числа страниц: в пуле хранится не больше {@code maxPooled}
+ * буферов, лишние отдаются GC. Заодно пул копит среднее число байт, выделенных на страницу.
+ */
+@Slf4j
+@Component
+public class BufferPool {
+
+    private final int bufferSize;
+    private final BlockingQueue<byte[]> free;
+    private final AtomicLong allocated = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+    private final AtomicLong measuredPages = new AtomicLong();
+    private final AtomicLong measuredBytes = new AtomicLong();
+
+    public BufferPool(CrawlerSettings settings) {
+        CrawlerSettings.Buffers buffers = settings.getBuffers();
+        this.bufferSize = (int) Math.max(1024, buffers.getBufferSize().toBytes());
+        this.free = new ArrayBlockingQueue<>(Math.max(1, buffers.getMaxPooled()));
+    }
+
+    public byte[] acquire() {
+        byte[] buffer = free.poll();
+        if (buffer != null) {
+            reused.incrementAndGet();
+            return buffer;
+        }
+        allocated.incrementAndGet();
+        return new byte[bufferSize];
+    }
+
+    public void release(byte[] buffer) {
+        if (buffer != null && buffer.length == bufferSize) {
+            free.offer(buffer);
+        }
+    }
+
+    /**
+     * Учитывает байты, выделенные потоком на загрузку и разбор одной страницы.
+     */
+    public void recordPage(long allocatedBytes) {
+        if (allocatedBytes < 0) return;
+        measuredPages.incrementAndGet();
+        measuredBytes.addAndGet(allocatedBytes);
+    }
+
+    public long bytesPerPage() {
+        long pages = measuredPages.get();
+        return pages == 0 ? 0 : measuredBytes.get() / pages;
+    }
+
+    public long allocatedBuffers() {
+        return allocated.get();
+    }
+
+    public long reusedBuffers() {
+        return reused.get();
+    }
+}
@@ -0,0 +1,62 @@
+package searchengine.crawler;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import searchengine.config.CrawlerSettings;
+import searchengine.exceptions.IndexingInterruptedException;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Единый бюджет индексатора на все сайты: слоты загрузки, слоты разбора/лемматизации и слоты записи в БД.
+ * Слоты загрузки делятся между сайтами по весам, разбор и запись выдаются в порядке очереди,
+ * а их число не превышает числа ядер и размера пула соединений соответственно.
+ */
+@Slf4j
+@Component
+public class CrawlBudget {
+
+    private final WeightedSlots fetchSlots;
+    private final Semaphore parseSlots;
+    private final Semaphore dbSlots;
+
+    public CrawlBudget(CrawlerSettings settings) {
+        CrawlerSettings.Budget budget = settings.getBudget();
+        this.fetchSlots = new WeightedSlots(budget.getFetchSlots());
+        this.parseSlots = new Semaphore(Math.max(1, budget.getParseSlots()), true);
+        this.dbSlots = new Semaphore(Math.max(1, budget.getDbSlots()), true);
+        log.info("📊 Бюджет обхода: загрузка {}, разбор {}, запись в БД {}",
+                budget.getFetchSlots(), budget.getParseSlots(), budget.getDbSlots());
+    }
+
+    public WeightedSlots.Share registerSite(String siteUrl, int weight) {
+        return fetchSlots.register(siteUrl, weight);
+    }
+
+    public <T, E extends Exception> T parse(SlotTask<T, E> task) throws E {
+        return withSlot(parseSlots, task);
+    }
+
+    public <T, E extends Exception> T write(SlotTask<T, E> task) throws E {
+        return withSlot(dbSlots, task);
+    }
+
+    private static <T, E extends Exception> T withSlot(Semaphore slots, SlotTask<T, E> task) throws E {
+        try {
+            slots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IndexingInterruptedException("Индексация остановлена пользователем");
+        }
+        try {
+            return task.call();
+        } finally {
+            slots.release();
+        }
+    }
+
+    @FunctionalInterface
+    public interface SlotTask<T, E extends Exception> {
+        T call() throws E;
+    }
+}
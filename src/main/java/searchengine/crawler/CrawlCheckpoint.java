@@ -0,0 +1,100 @@
+package searchengine.crawler;
+
+import lombok.extern.slf4j.Slf4j;
+import searchengine.model.CrawlCheckpointEntity;
+import searchengine.model.SiteEntity;
+import searchengine.repositories.CrawlCheckpointRepository;
+import searchengine.utils.UrlCanonicalizer;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Predicate;
+
+import static searchengine.utils.UrlUtils.hostOf;
+
+/**
+ * Контрольная точка обхода сайта: таблица crawl_checkpoint хранит ещё не обработанную часть очереди.
+ * События копятся в памяти и записываются пачками из потока сайта, а не из рабочих потоков обхода.
+ */
+@Slf4j
+public class CrawlCheckpoint implements CrawlJournal {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final Queue<CrawlRequest> admitted = new ConcurrentLinkedQueue<>();
+    private final Queue<CrawlRequest> completed = new ConcurrentLinkedQueue<>();
+    private final SiteEntity site;
+    private final CrawlCheckpointRepository repository;
+
+    public CrawlCheckpoint(SiteEntity site, CrawlCheckpointRepository repository) {
+        this.site = site;
+        this.repository = repository;
+    }
+
+    @Override
+    public void admitted(CrawlRequest request) {
+        admitted.add(request);
+    }
+
+    @Override
+    public void completed(CrawlRequest request) {
+        completed.add(request);
+    }
+
+    /**
+     * Записывает накопленные события. Сначала забираются завершённые адреса, потом допущенные:
+     * ссылки, найденные на странице, попадают в журнал раньше её завершения, поэтому страница
+     * не может исчезнуть из таблицы раньше своих ссылок. Допущенный и уже завершённый адрес
+     * не записывается, а завершённые удаляются всегда — их строка могла быть записана прошлой пачкой.
+     */
+    public synchronized void flush() {
+        Set<Long> done = new HashSet<>();
+        for (CrawlRequest request; (request = completed.poll()) != null; ) {
+            done.add(UrlCanonicalizer.fingerprint(request.url()));
+        }
+        Set<Long> seen = new HashSet<>();
+        List<CrawlCheckpointEntity> rows = new ArrayList<>();
+        for (CrawlRequest request; (request = admitted.poll()) != null; ) {
+            long hash = UrlCanonicalizer.fingerprint(request.url());
+            if (!done.contains(hash) && seen.add(hash)) {
+                rows.add(toEntity(request, hash));
+            }
+        }
+
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            repository.saveAll(rows.subList(from, Math.min(rows.size(), from + BATCH_SIZE)));
+        }
+        List<Long> hashes = new ArrayList<>(done);
+        for (int from = 0; from < hashes.size(); from += BATCH_SIZE) {
+            repository.deleteBySiteIdAndUrlHashIn(site.getId(),
+                    hashes.subList(from, Math.min(hashes.size(), from + BATCH_SIZE)));
+        }
+        log.debug("💾 Контрольная точка {}: +{} в очереди, -{} обработано", site.getUrl(), rows.size(), hashes.size());
+    }
+
+    /**
+     * Читает сохранённую очередь. Адреса, для которых {@code stored} возвращает true, уже сохранены
+     * в базе и при продолжении разбираются из сохранённой копии без повторной загрузки.
+     */
+    public List<CrawlRequest> load(Predicate<String> stored) {
+        return repository.findAllBySiteId(site.getId()).stream()
+                .map(row -> new CrawlRequest(row.getUrl(), hostOf(row.getUrl()), row.getDepth(),
+                        stored.test(row.getUrl())))
+                .toList();
+    }
+
+    public void clear() {
+        admitted.clear();
+        completed.clear();
+        repository.deleteAllBySiteId(site.getId());
+    }
+
+    private CrawlCheckpointEntity toEntity(CrawlRequest request, long hash) {
+        CrawlCheckpointEntity entity = new CrawlCheckpointEntity();
+        entity.setSite(site);
+        entity.setUrl(request.url());
+        entity.setUrlHash(hash);
+        entity.setDepth(request.depth());
+        return entity;
+    }
+}
@@ -0,0 +1,6 @@
+package searchengine.crawler;
+
+public enum CrawlEngine {
+    FORK_JOIN,
+    VIRTUAL_THREADS
+}
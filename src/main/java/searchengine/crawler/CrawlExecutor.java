@@ -0,0 +1,11 @@
+package searchengine.crawler;
+
+import java.util.concurrent.ExecutorService;
+
+public record CrawlExecutor(ExecutorService executor, int concurrency) implements AutoCloseable {
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,35 @@
+package searchengine.crawler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import searchengine.config.CrawlerSettings;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
+
+import static searchengine.utils.UrlUtils.hostOf;
+
+/**
+ * Создаёт исполнителя обхода по настройке indexing-settings.crawler.engine.
+ * Для виртуальных потоков число одновременных задач ограничивает семафор очереди обхода,
+ * а не размер пула, поэтому медленные HTTP-запросы почти ничего не стоят.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CrawlExecutorFactory {
+
+    private final CrawlerSettings settings;
+
+    public CrawlExecutor create(String siteUrl) {
+        if (settings.getEngine() == CrawlEngine.VIRTUAL_THREADS) {
+            ThreadFactory factory = Thread.ofVirtual().name("crawl-" + hostOf(siteUrl) + "-", 0).factory();
+            log.info("🧵 Обход {} на виртуальных потоках, не более {} задач", siteUrl, settings.getMaxConcurrency());
+            return new CrawlExecutor(Executors.newThreadPerTaskExecutor(factory), settings.getMaxConcurrency());
+        }
+        log.info("🧵 Обход {} в ForkJoinPool, параллелизм {}", siteUrl, settings.getParallelism());
+        return new CrawlExecutor(new ForkJoinPool(settings.getParallelism()), settings.getParallelism());
+    }
+}
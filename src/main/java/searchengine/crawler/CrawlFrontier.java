@@ -0,0 +1,680 @@
+package searchengine.crawler;
+
+import lombok.extern.slf4j.Slf4j;
+import searchengine.exceptions.IndexingInterruptedException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+import static searchengine.utils.UrlUtils.hostOf;
+
+/**
+ * Общая для всего сайта очередь обхода.
+ * Каждый нормализованный путь допускается в очередь ровно один раз — до любого сетевого запроса,
+ * поэтому стоимость обхода зависит от числа уникальных страниц, а не от числа ссылок.
+ * Очереди ведутся по хостам: если лимит хоста исчерпан, свободный слот получает другой хост,
+ * а сама очередь просыпается, когда хост вернёт разрешение (в том числе другому обходу) или истечёт его пауза.
+ * Внутри хоста страницы выдаются по рангу {@link CrawlPolicy}, при равном ранге — в порядке обнаружения.
+ */
+@Slf4j
+public class CrawlFrontier {
+
+    private static final ThreadLocal<CrawlRequest> HANDED_OFF = new ThreadLocal<>();
+    private static final long DEFAULT_VISITED_MEMORY = 1 << 20;
+
+    private final VisitedSet visited;
+    private final Map<String, Queue<Queued>> hostQueues = new ConcurrentHashMap<>();
+    private final Map<Thread, InFlight> running = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger pages = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicBoolean budgetReached = new AtomicBoolean();
+    private final AtomicBoolean visitedFull = new AtomicBoolean();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger dispatchWip = new AtomicInteger();
+    private final AtomicLong wakeUpAt = new AtomicLong();
+    private final Runnable wakeUp = this::dispatch;
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private final Executor executor;
+    private final Semaphore slots;
+    private final int parallelism;
+    private final ToLongFunction<String> keyFunction;
+    private final HostRateLimiter rateLimiter;
+    private volatile Consumer<CrawlRequest> worker;
+    private volatile Predicate<String> admissionFilter = url -> true;
+    private volatile CrawlJournal journal = CrawlJournal.NONE;
+    private volatile WeightedSlots.Share fetchShare;
+    private volatile ToLongFunction<String> hostGate = host -> 0;
+    private volatile CrawlPolicy policy = CrawlPolicy.UNLIMITED;
+    private volatile HostPermits hostPermits = HostPermits.UNLIMITED;
+    private volatile boolean paused;
+
+    public CrawlFrontier(Executor executor, int parallelism, ToLongFunction<String> keyFunction,
+                         HostRateLimiter rateLimiter) {
+        this(executor, parallelism, keyFunction, rateLimiter, new OffHeapVisitedSet(DEFAULT_VISITED_MEMORY));
+    }
+
+    public CrawlFrontier(Executor executor, int parallelism, ToLongFunction<String> keyFunction,
+                         HostRateLimiter rateLimiter, VisitedSet visited) {
+        this.visited = visited;
+        this.executor = executor;
+        this.slots = new Semaphore(parallelism);
+        this.parallelism = parallelism;
+        this.keyFunction = keyFunction;
+        this.rateLimiter = rateLimiter;
+    }
+
+    public void setAdmissionFilter(Predicate<String> admissionFilter) {
+        this.admissionFilter = admissionFilter;
+    }
+
+    /**
+     * Подключает долю сайта в общем бюджете загрузок. Когда общий слот освобождается, очередь просыпается сама.
+     */
+    public void setFetchShare(WeightedSlots.Share fetchShare) {
+        fetchShare.onAvailable(this::dispatch);
+        this.fetchShare = fetchShare;
+    }
+
+    /**
+     * Дополнительная задержка хоста перед ограничителем частоты, например пауза после ошибок.
+     */
+    public void setHostGate(ToLongFunction<String> hostGate) {
+        this.hostGate = hostGate;
+    }
+
+    /**
+     * Лимит параллельных запросов на хост. Хост, исчерпавший лимит, пропускается:
+     * очередь проснётся, когда завершится один из его запросов, в том числе запрос другого обхода.
+     */
+    public void setHostPermits(HostPermits hostPermits) {
+        this.hostPermits = hostPermits;
+    }
+
+    public void setPolicy(CrawlPolicy policy) {
+        this.policy = policy;
+    }
+
+    public void setJournal(CrawlJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Помечает ключи как уже пройденные, например страницы, сохранённые до перезапуска.
+     */
+    public void markVisited(Collection<Long> keys) {
+        for (long key : keys) {
+            if (visited.add(key)) pages.incrementAndGet();
+        }
+    }
+
+    public void start(String rootUrl, Consumer<CrawlRequest> worker) {
+        start(rootUrl, worker, () -> { });
+    }
+
+    /**
+     * Запускает обход с корня сайта. Пока выполняется seeding (например, чтение карт сайта),
+     * обход не может завершиться, даже если все уже найденные страницы обработаны.
+     */
+    public void start(String rootUrl, Consumer<CrawlRequest> worker, Runnable seeding) {
+        this.worker = worker;
+        pending.incrementAndGet();
+        try {
+            admit(rootUrl, 0, false);
+            seeding.run();
+        } finally {
+            release();
+        }
+    }
+
+    public boolean admit(String url, int depth, boolean unchanged) {
+        CrawlPolicy policy = this.policy;
+        if (completion.isDone() || !policy.allows(url, depth) || !admissionFilter.test(url)) {
+            return false;
+        }
+        if (!visited.add(keyFunction.applyAsLong(url))) {
+            if (visited.isFull() && visitedFull.compareAndSet(false, true)) {
+                log.warn("🧠 Исчерпана память множества посещённых адресов для {}: {} адресов, новые ссылки отбрасываются",
+                        hostOf(url), visited.size());
+            }
+            return false;
+        }
+        if (!policy.withinPageBudget(pages.incrementAndGet())) {
+            if (budgetReached.compareAndSet(false, true)) {
+                log.info("📏 Достигнут предел страниц {} для {}, новые ссылки не ставятся в очередь",
+                        policy.getMaxPages(), hostOf(url));
+            }
+            return false;
+        }
+        CrawlRequest request = new CrawlRequest(url, hostOf(url), depth, unchanged);
+        journal.admitted(request);
+        enqueue(request);
+        return true;
+    }
+
+    /**
+     * Возвращает в очередь запрос из контрольной точки, минуя проверку на повтор и журнал.
+     */
+    public void restore(CrawlRequest request) {
+        if (completion.isDone()) {
+            return;
+        }
+        if (visited.add(keyFunction.applyAsLong(request.url()))) {
+            pages.incrementAndGet();
+        }
+        enqueue(request);
+    }
+
+    /**
+     * Возвращает запрос в очередь после неудачной попытки. Повтор не держит рабочий поток:
+     * запрос ждёт в очереди хоста, пока хост не выйдет из паузы. В журнал повтор не пишется —
+     * адрес остаётся в нём с момента допуска до завершения.
+     */
+    public void retry(CrawlRequest request) {
+        InFlight current = running.get(Thread.currentThread());
+        if (completion.isDone() || current != null && current.isCancelled()) {
+            return;
+        }
+        enqueue(request);
+    }
+
+    /**
+     * Передаёт дальнейшую обработку запроса стадиям конвейера. Вызывается из обработчика:
+     * обход не завершится, пока не вызван {@link Handoff#complete()} или {@link Handoff#abandon()},
+     * а в журнал запрос попадёт только после complete — то есть после записи страницы.
+     */
+    public Handoff handOff(CrawlRequest request) {
+        pending.incrementAndGet();
+        HANDED_OFF.set(request);
+        return new Handoff(request);
+    }
+
+    public final class Handoff {
+        private final CrawlRequest request;
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        private Handoff(CrawlRequest request) {
+            this.request = request;
+        }
+
+        public void complete() {
+            if (done.compareAndSet(false, true)) {
+                journal.completed(request);
+                release();
+            }
+        }
+
+        /**
+         * Обработка прервана: запрос остаётся в контрольной точке и будет повторён при продолжении.
+         */
+        public void abandon() {
+            if (done.compareAndSet(false, true)) {
+                release();
+            }
+        }
+    }
+
+    private void enqueue(CrawlRequest request) {
+        pending.incrementAndGet();
+        Queued entry = new Queued(request, policy.rank(request.url(), request.depth()), sequence.incrementAndGet());
+        hostQueues.computeIfAbsent(request.host(), h -> new PriorityBlockingQueue<>()).add(entry);
+        queued.incrementAndGet();
+        dispatch();
+    }
+
+    public void await() throws InterruptedException {
+        try {
+            completion.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    /**
+     * Ждёт завершения обхода не дольше заданного времени.
+     *
+     * @return true, если обход завершён
+     */
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        try {
+            completion.get(timeout, unit);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return new IllegalStateException(e.getCause());
+    }
+
+    public void cancel(String reason) {
+        completion.completeExceptionally(new IndexingInterruptedException(reason));
+    }
+
+    /**
+     * Останавливает обход и отменяет выполняющиеся задачи: их страницы остаются в контрольной точке.
+     */
+    public void stop(String reason) {
+        cancel(reason);
+        running.values().forEach(task -> task.cancel(false));
+    }
+
+    public boolean isCancelled() {
+        return completion.isCompletedExceptionally();
+    }
+
+    /**
+     * Приостанавливает выдачу задач. Выполняющиеся задачи отменяются и возвращаются в очередь,
+     * так что слоты общего бюджета быстро достаются другим сайтам.
+     */
+    public void pause() {
+        paused = true;
+        running.values().forEach(task -> task.cancel(true));
+    }
+
+    public void resume() {
+        paused = false;
+        dispatch();
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Точка кооперативной отмены для обработчика: true, если обход остановлен, а текущая задача
+     * отменена или обход приостановлен. Задача, начатая одновременно с паузой, здесь же помечается
+     * к возврату в очередь.
+     */
+    public boolean isTaskCancelled() {
+        InFlight task = running.get(Thread.currentThread());
+        if (task != null && paused) {
+            task.cancel(true);
+        }
+        return isCancelled() || task != null && task.isCancelled();
+    }
+
+    /**
+     * Выполняет HTTP-загрузку задачи. Отмена прерывает поток только внутри этого вызова, поэтому
+     * обращения к БД и ожидание слотов бюджета прерыванием не затрагиваются. Если задачу отменили
+     * во время загрузки, результат отбрасывается, и обработчик не переходит к записи страницы.
+     */
+    public <T> T fetch(Fetch<T> fetch) throws IOException {
+        InFlight task = running.get(Thread.currentThread());
+        if (task == null) {
+            return fetch.get();
+        }
+        if (!task.beginFetch()) {
+            throw new InterruptedIOException("Загрузка отменена: " + task.request.url());
+        }
+        T result;
+        boolean cancelled;
+        try {
+            result = fetch.get();
+        } finally {
+            cancelled = task.endFetch();
+        }
+        if (cancelled) {
+            throw new InterruptedIOException("Загрузка отменена: " + task.request.url());
+        }
+        return result;
+    }
+
+    @FunctionalInterface
+    public interface Fetch<T> {
+        T get() throws IOException;
+    }
+
+    public boolean isVisited(long key) {
+        return visited.contains(key);
+    }
+
+    public int visitedCount() {
+        return visited.size();
+    }
+
+    public int queuedCount() {
+        return queued.get();
+    }
+
+    public int inFlightCount() {
+        return parallelism - slots.availablePermits();
+    }
+
+    public int parallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Длина очереди каждого хоста, без пустых очередей.
+     */
+    public Map<String, Integer> queuedByHost() {
+        Map<String, Integer> result = new TreeMap<>();
+        hostQueues.forEach((host, queue) -> {
+            int size = queue.size();
+            if (size > 0) result.put(host, size);
+        });
+        return result;
+    }
+
+    /**
+     * Выполняющиеся сейчас задачи обхода, от самой старой.
+     */
+    public List<InFlight> inFlight() {
+        List<InFlight> result = new ArrayList<>(running.values());
+        result.sort((a, b) -> Long.compare(a.startedNanos, b.startedNanos));
+        return result;
+    }
+
+    /**
+     * Задачи, выполняющиеся дольше порога и ещё не попадавшие в отчёт: каждая возвращается один раз.
+     */
+    public List<InFlight> stuck(long thresholdNanos) {
+        long now = System.nanoTime();
+        List<InFlight> result = new ArrayList<>();
+        for (InFlight task : inFlight()) {
+            if (task.ageNanos(now) >= thresholdNanos && task.reported.compareAndSet(false, true)) {
+                result.add(task);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Отменяет выполняющуюся задачу адреса: идущая HTTP-загрузка прерывается, иначе задача остановится
+     * в ближайшей точке проверки. Страница пропускается без повтора.
+     *
+     * @return false, если такой загрузки сейчас нет
+     */
+    public boolean cancelTask(String url) {
+        for (InFlight task : running.values()) {
+            if (task.request.url().equals(url)) {
+                return task.cancel(false);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Выполняющаяся задача обхода: запрос, поток и время старта.
+     */
+    public static final class InFlight {
+        private final CrawlRequest request;
+        private final Thread thread;
+        private final long startedNanos;
+        private final AtomicBoolean reported = new AtomicBoolean();
+        private boolean cancelled;
+        private boolean requeue;
+        private boolean finished;
+        private boolean fetching;
+
+        private InFlight(CrawlRequest request, Thread thread, long startedNanos) {
+            this.request = request;
+            this.thread = thread;
+            this.startedNanos = startedNanos;
+        }
+
+        public CrawlRequest request() {
+            return request;
+        }
+
+        public long ageNanos(long now) {
+            return now - startedNanos;
+        }
+
+        public String threadName() {
+            return thread.getName();
+        }
+
+        public Thread.State threadState() {
+            return thread.getState();
+        }
+
+        public synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Верхние кадры стека потока задачи — где именно она висит.
+         */
+        public StackTraceElement[] stackTrace(int maxFrames) {
+            StackTraceElement[] stack = thread.getStackTrace();
+            return stack.length <= maxFrames ? stack : Arrays.copyOf(stack, maxFrames);
+        }
+
+        /**
+         * Помечает задачу отменённой. Поток прерывается, только пока он внутри HTTP-загрузки:
+         * прерывание JDBC-вызова может закрыть соединение пула, а после завершения задачи досталось бы чужой.
+         *
+         * @param requeue вернуть запрос в очередь (пауза) вместо пропуска страницы
+         */
+        private synchronized boolean cancel(boolean requeue) {
+            if (finished || cancelled) {
+                return false;
+            }
+            cancelled = true;
+            this.requeue = requeue;
+            if (fetching) {
+                thread.interrupt();
+            }
+            return true;
+        }
+
+        private synchronized boolean beginFetch() {
+            fetching = !cancelled;
+            return fetching;
+        }
+
+        /**
+         * @return true, если задачу отменили во время загрузки; прерывание к этому моменту снято
+         */
+        private synchronized boolean endFetch() {
+            fetching = false;
+            if (cancelled) {
+                Thread.interrupted();
+            }
+            return cancelled;
+        }
+
+        private synchronized boolean isRequeued() {
+            return requeue;
+        }
+
+        private synchronized boolean finish() {
+            finished = true;
+            return cancelled;
+        }
+    }
+
+    private void dispatch() {
+        if (dispatchWip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            drain();
+            missed = dispatchWip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void drain() {
+        long nextWakeUp = Long.MAX_VALUE;
+        boolean progress = true;
+        while (progress && !paused && !completion.isDone() && queued.get() > 0) {
+            progress = false;
+            for (Map.Entry<String, Queue<Queued>> entry : hostQueues.entrySet()) {
+                Queue<Queued> queue = entry.getValue();
+                if (queue.isEmpty()) {
+                    continue;
+                }
+                if (!acquireSlot()) {
+                    return;
+                }
+                String host = entry.getKey();
+                if (!hostPermits.tryAcquire(host, wakeUp)) {
+                    releaseSlot();
+                    continue;
+                }
+                Queued head = queue.peek();
+                long wait = head != null && head.request().unchanged() ? 0 : hostWait(host);
+                if (wait > 0) {
+                    hostPermits.release(host);
+                    releaseSlot();
+                    nextWakeUp = Math.min(nextWakeUp, wait);
+                    continue;
+                }
+                Queued next = queue.poll();
+                queued.decrementAndGet();
+                execute(next.request());
+                progress = true;
+            }
+        }
+        if (nextWakeUp != Long.MAX_VALUE && !completion.isDone()) {
+            scheduleWakeUp(nextWakeUp);
+        }
+    }
+
+    private long hostWait(String host) {
+        long wait = hostGate.applyAsLong(host);
+        return wait > 0 ? wait : rateLimiter.tryAcquire(host);
+    }
+
+    private void scheduleWakeUp(long delayNanos) {
+        long at = System.nanoTime() + delayNanos;
+        long planned = wakeUpAt.get();
+        if (planned != 0 && planned - at <= 0) {
+            return;
+        }
+        if (wakeUpAt.compareAndSet(planned, at)) {
+            rateLimiter.schedule(() -> {
+                wakeUpAt.compareAndSet(at, 0);
+                dispatch();
+            }, delayNanos);
+        }
+    }
+
+    private void execute(CrawlRequest request) {
+        try {
+            executor.execute(() -> run(request));
+        } catch (RejectedExecutionException e) {
+            hostPermits.release(request.host());
+            releaseSlot();
+            completion.completeExceptionally(e);
+        }
+    }
+
+    private void run(CrawlRequest request) {
+        InFlight task = new InFlight(request, Thread.currentThread(), System.nanoTime());
+        running.put(task.thread, task);
+        try {
+            if (!completion.isDone()) {
+                worker.accept(request);
+                if (task.isCancelled()) {
+                    cancelled(task, request, null);
+                } else if (HANDED_OFF.get() != request) {
+                    journal.completed(request);
+                }
+            }
+        } catch (RuntimeException e) {
+            if (task.isCancelled()) {
+                cancelled(task, request, e);
+            } else if (e instanceof IndexingInterruptedException) {
+                completion.completeExceptionally(e);
+            } else if (request.depth() == 0) {
+                completion.completeExceptionally(e);
+            } else {
+                log.error("❌ Ошибка обработки {}: {}", request.url(), e.getMessage(), e);
+                if (HANDED_OFF.get() != request) {
+                    journal.completed(request);
+                }
+            }
+        } finally {
+            running.remove(task.thread);
+            if (task.finish()) {
+                // прерывание предназначалось только этой задаче, поток пула возвращается чистым
+                Thread.interrupted();
+            }
+            HANDED_OFF.remove();
+            hostPermits.release(request.host());
+            releaseSlot();
+            release();
+        }
+    }
+
+    /**
+     * Завершение прерванной задачи. После остановки обхода страница остаётся в контрольной точке,
+     * при паузе запрос возвращается в очередь (повторная загрузка безвредна: неизменённая страница
+     * не переиндексируется), при отмене одной загрузки страница считается пройденной.
+     */
+    private void cancelled(InFlight task, CrawlRequest request, RuntimeException cause) {
+        if (completion.isDone()) {
+            return;
+        }
+        if (task.isRequeued()) {
+            log.info("⏸️ Загрузка {} прервана паузой и возвращена в очередь", request.url());
+            enqueue(request);
+            return;
+        }
+        log.warn("⏹️ Загрузка {} отменена, страница пропущена{}", request.url(),
+                cause != null ? ": " + cause.getMessage() : "");
+        if (HANDED_OFF.get() != request) {
+            journal.completed(request);
+        }
+    }
+
+    private boolean acquireSlot() {
+        if (!slots.tryAcquire()) {
+            return false;
+        }
+        WeightedSlots.Share share = fetchShare;
+        if (share != null && !share.tryAcquire()) {
+            slots.release();
+            return false;
+        }
+        return true;
+    }
+
+    private void releaseSlot() {
+        slots.release();
+        WeightedSlots.Share share = fetchShare;
+        if (share != null) {
+            share.release();
+        }
+    }
+
+    private record Queued(CrawlRequest request, int rank, long sequence) implements Comparable<Queued> {
+        @Override
+        public int compareTo(Queued other) {
+            int byRank = Integer.compare(rank, other.rank);
+            return byRank != 0 ? byRank : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private void release() {
+        if (pending.decrementAndGet() == 0) {
+            completion.complete(null);
+        } else {
+            dispatch();
+        }
+    }
+}
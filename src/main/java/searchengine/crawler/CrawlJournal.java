@@ -0,0 +1,21 @@
+package searchengine.crawler;
+
+/**
+ * Получает события frontier: адрес допущен в очередь и адрес обработан.
+ */
+public interface CrawlJournal {
+
+    CrawlJournal NONE = new CrawlJournal() {
+        @Override
+        public void admitted(CrawlRequest request) {
+        }
+
+        @Override
+        public void completed(CrawlRequest request) {
+        }
+    };
+
+    void admitted(CrawlRequest request);
+
+    void completed(CrawlRequest request);
+}
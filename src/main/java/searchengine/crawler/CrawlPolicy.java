@@ -0,0 +1,96 @@
+package searchengine.crawler;
+
+import searchengine.config.Site;
+
+import java.util.List;
+
+import static searchengine.utils.UrlUtils.pathOf;
+
+/**
+ * Политика обхода одного сайта: пределы глубины и числа страниц, фильтры путей и функция приоритета.
+ * Шаблоны путей записываются как в robots.txt: префикс, «*» — любая подстрока, «$» — конец пути.
+ * Корень сайта допускается всегда, иначе обход не с чего начать.
+ */
+public final class CrawlPolicy {
+
+    public static final CrawlPolicy UNLIMITED =
+            new CrawlPolicy(-1, -1, List.of(), List.of(), CrawlPriority.BREADTH_FIRST, List.of());
+
+    private final int maxDepth;
+    private final int maxPages;
+    private final List<String> include;
+    private final List<String> exclude;
+    private final CrawlPriority priority;
+    private final List<String> priorityPaths;
+
+    public CrawlPolicy(int maxDepth, int maxPages, List<String> include, List<String> exclude,
+                       CrawlPriority priority, List<String> priorityPaths) {
+        this.maxDepth = maxDepth;
+        this.maxPages = maxPages;
+        this.include = List.copyOf(include);
+        this.exclude = List.copyOf(exclude);
+        this.priority = priority;
+        this.priorityPaths = List.copyOf(priorityPaths);
+    }
+
+    public static CrawlPolicy of(Site site) {
+        return new CrawlPolicy(site.getMaxDepth(), site.getMaxPages(), site.getInclude(), site.getExclude(),
+                site.getPriority(), site.getPriorityPaths());
+    }
+
+    /**
+     * Проходит ли адрес по глубине и фильтрам путей. Предел страниц проверяет очередь.
+     */
+    public boolean allows(String url, int depth) {
+        if (depth == 0) return true;
+        if (maxDepth >= 0 && depth > maxDepth) return false;
+        String path = pathOf(url);
+        if (matchesAny(exclude, path)) return false;
+        return include.isEmpty() || matchesAny(include, path);
+    }
+
+    /**
+     * @return false, если страница с таким порядковым номером уже не помещается в бюджет сайта
+     */
+    public boolean withinPageBudget(int pages) {
+        return maxPages < 0 || pages <= maxPages;
+    }
+
+    /**
+     * Ранг страницы в очереди: меньше — раньше. Страницы из priority-paths идут впереди остальных того же ранга.
+     */
+    public int rank(String url, int depth) {
+        int base = switch (priority) {
+            case FIFO -> 0;
+            case BREADTH_FIRST -> depth;
+            case SHALLOW_PATH -> depth + segments(pathOf(url));
+        };
+        if (priorityPaths.isEmpty()) return base;
+        return base * 2 + (matchesAny(priorityPaths, pathOf(url)) ? 0 : 1);
+    }
+
+    public int getMaxPages() {
+        return maxPages;
+    }
+
+    @Override
+    public String toString() {
+        return "глубина " + (maxDepth < 0 ? "∞" : maxDepth) + ", страниц " + (maxPages < 0 ? "∞" : maxPages)
+                + ", include " + include + ", exclude " + exclude + ", приоритет " + priority;
+    }
+
+    private static boolean matchesAny(List<String> patterns, String path) {
+        for (String pattern : patterns) {
+            if (RobotsRules.matches(pattern, path)) return true;
+        }
+        return false;
+    }
+
+    private static int segments(String path) {
+        int count = 0;
+        for (int i = 0; i < path.length() - 1; i++) {
+            if (path.charAt(i) == '/') count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,13 @@
+package searchengine.crawler;
+
+/**
+ * Порядок выдачи страниц из очереди хоста. Меньший ранг обслуживается раньше.
+ */
+public enum CrawlPriority {
+    /** Только глубина от корня: обход в ширину. */
+    BREADTH_FIRST,
+    /** Глубина плюс число сегментов пути: короткие адреса разделов раньше длинных адресов статей. */
+    SHALLOW_PATH,
+    /** Порядок обнаружения, как до появления приоритетов. */
+    FIFO
+}
@@ -0,0 +1,12 @@
+package searchengine.crawler;
+
+public record CrawlRequest(String url, String host, int depth, boolean unchanged, int attempt) {
+
+    public CrawlRequest(String url, String host, int depth, boolean unchanged) {
+        this(url, host, depth, unchanged, 0);
+    }
+
+    public CrawlRequest nextAttempt() {
+        return new CrawlRequest(url, host, depth, unchanged, attempt + 1);
+    }
+}
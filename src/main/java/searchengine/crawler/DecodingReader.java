@@ -0,0 +1,82 @@
+package searchengine.crawler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Декодирует байты тела прямо в буфер парсера через буфер из пула, без промежуточных копий
+ * InputStreamReader/BufferedInputStream. Буфер возвращается в пул при закрытии.
+ */
+final class DecodingReader extends Reader {
+
+    private final InputStream in;
+    private final CharsetDecoder decoder;
+    private final BufferPool pool;
+    private byte[] buffer;
+    private final ByteBuffer bytes;
+    private boolean endOfInput;
+    private boolean flushed;
+
+    /**
+     * @param buffer буфер из пула, в котором уже лежат {@code filled} байт начала тела
+     * @param start  сколько байт в начале пропустить (BOM)
+     */
+    DecodingReader(InputStream in, Charset charset, BufferPool pool, byte[] buffer, int start, int filled) {
+        this.in = in;
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.pool = pool;
+        this.buffer = buffer;
+        this.bytes = ByteBuffer.wrap(buffer, start, filled - start);
+    }
+
+    @Override
+    public int read(char[] chars, int offset, int length) throws IOException {
+        if (length == 0) return 0;
+        if (buffer == null) throw new IOException("Поток закрыт");
+        CharBuffer out = CharBuffer.wrap(chars, offset, length);
+        while (true) {
+            CoderResult result = decoder.decode(bytes, out, endOfInput);
+            if (result.isOverflow() || out.position() > offset) {
+                break;
+            }
+            if (endOfInput) {
+                if (!flushed) {
+                    decoder.flush(out);
+                    flushed = true;
+                }
+                break;
+            }
+            fill();
+        }
+        int count = out.position() - offset;
+        return count == 0 && flushed ? -1 : count;
+    }
+
+    private void fill() throws IOException {
+        bytes.compact();
+        int n = in.read(buffer, bytes.position(), bytes.remaining());
+        if (n < 0) {
+            endOfInput = true;
+        } else {
+            bytes.position(bytes.position() + n);
+        }
+        bytes.flip();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (buffer == null) return;
+        pool.release(buffer);
+        buffer = null;
+        in.close();
+    }
+}
@@ -0,0 +1,15 @@
+package searchengine.crawler;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Текст и ссылки страницы, один раз закодированные в UTF-8. Эти же байты хэшируются
+ * и уходят в JDBC-параметры, так что драйвер не перекодирует строки заново.
+ */
+public record EncodedContent(String title, byte[] text, byte[] links) {
+
+    public static EncodedContent of(PageContent content) {
+        return new EncodedContent(content.title(), content.text().getBytes(StandardCharsets.UTF_8),
+                content.joinedLinks().getBytes(StandardCharsets.UTF_8));
+    }
+}
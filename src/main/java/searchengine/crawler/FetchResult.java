@@ -0,0 +1,35 @@
+package searchengine.crawler;
+
+import java.time.Duration;
+
+/**
+ * Ответ сервера. {@code content} равен null, если тело не читалось: ответ не 2xx, не HTML или слишком велик.
+ * {@code retryAfter} — пауза из заголовка Retry-After или null.
+ */
+public record FetchResult(String url, int statusCode, String contentType, String etag, String lastModified,
+                          PageContent content, Duration retryAfter) {
+
+    public FetchResult(String url, int statusCode, String contentType, String etag, String lastModified,
+                       PageContent content) {
+        this(url, statusCode, contentType, etag, lastModified, content, null);
+    }
+
+    /**
+     * Сервер просит снизить нагрузку: 429 Too Many Requests или 503 Service Unavailable.
+     */
+    public boolean isThrottled() {
+        return statusCode == 429 || statusCode == 503;
+    }
+
+    public boolean notModified() {
+        return statusCode == 304;
+    }
+
+    public boolean isSuccess() {
+        return statusCode >= 200 && statusCode < 300;
+    }
+
+    public boolean hasContent() {
+        return content != null;
+    }
+}
@@ -0,0 +1,187 @@
+package searchengine.crawler;
+
+import lombok.extern.slf4j.Slf4j;
+import searchengine.config.CrawlerSettings;
+import searchengine.dto.HostHealthDto;
+import searchengine.exceptions.HostUnavailableException;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Состояние одного хоста: доля ошибок и задержка (скользящие средние), экспоненциальная пауза
+ * с джиттером после ошибок и размыкатель цепи.
+ * После {@code failureThreshold} ошибок подряд цепь размыкается на {@code openDuration}, затем пропускается
+ * один пробный запрос. Неудачная проба снова размыкает цепь на вдвое больший срок, а после
+ * {@code maxTrips} размыканий подряд хост считается недоступным до конца обхода.
+ */
+@Slf4j
+public class HostHealth {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN, DEAD }
+
+    private static final double ALPHA = 0.2;
+
+    private final String host;
+    private final CrawlerSettings.Retry retry;
+    private final CrawlerSettings.Circuit circuit;
+    private final CrawlerSettings.Concurrency concurrency;
+    private final AimdLimit limit;
+
+    private State state = State.CLOSED;
+    private boolean probeInFlight;
+    private int consecutiveFailures;
+    private int trips;
+    private long retryAt;
+    private long requests;
+    private long failures;
+    private double errorRate;
+    private double latencyMs;
+
+    public HostHealth(String host, CrawlerSettings.Retry retry, CrawlerSettings.Circuit circuit) {
+        this(host, retry, circuit, new CrawlerSettings.Concurrency());
+    }
+
+    public HostHealth(String host, CrawlerSettings.Retry retry, CrawlerSettings.Circuit circuit,
+                      CrawlerSettings.Concurrency concurrency) {
+        this.host = host;
+        this.retry = retry;
+        this.circuit = circuit;
+        this.concurrency = concurrency;
+        this.limit = new AimdLimit(concurrency);
+    }
+
+    public AimdLimit limit() {
+        return limit;
+    }
+
+    /**
+     * Сколько наносекунд очередь хоста должна подождать. Недоступный хост не задерживается:
+     * его запросы быстро завершаются ошибкой, не занимая сеть.
+     */
+    public synchronized long delayNanos(long now) {
+        if (state == State.DEAD) return 0;
+        if (state == State.HALF_OPEN && probeInFlight) return retry.getBaseDelay().toNanos();
+        return Math.max(0, retryAt - now);
+    }
+
+    public synchronized void beforeRequest(long now) throws HostUnavailableException {
+        switch (state) {
+            case DEAD -> throw new HostUnavailableException(host, true);
+            case OPEN -> {
+                if (now - retryAt < 0) throw new HostUnavailableException(host, false);
+                state = State.HALF_OPEN;
+                probeInFlight = true;
+                log.info("🔌 {}: пробный запрос после размыкания цепи", host);
+            }
+            case HALF_OPEN -> {
+                if (probeInFlight) throw new HostUnavailableException(host, false);
+                probeInFlight = true;
+            }
+            case CLOSED -> { }
+        }
+    }
+
+    public synchronized void onSuccess(long latencyNanos) {
+        record(latencyNanos, false);
+        limit.onResponse(latencyNanos);
+        if (state != State.CLOSED) {
+            log.info("🔌 {}: цепь замкнута", host);
+        }
+        state = State.CLOSED;
+        probeInFlight = false;
+        consecutiveFailures = 0;
+        trips = 0;
+        retryAt = 0;
+    }
+
+    public synchronized void onFailure(long now, long latencyNanos) {
+        record(latencyNanos, true);
+        probeInFlight = false;
+        consecutiveFailures++;
+        if (state == State.DEAD) return;
+
+        if (state == State.HALF_OPEN || consecutiveFailures >= circuit.getFailureThreshold()) {
+            trips++;
+            if (trips >= circuit.getMaxTrips()) {
+                state = State.DEAD;
+                log.warn("⛔ {}: хост недоступен до конца обхода после {} размыканий", host, trips);
+                return;
+            }
+            long open = circuit.getOpenDuration().toNanos() << Math.min(trips - 1, 16);
+            state = State.OPEN;
+            retryAt = now + open;
+            log.warn("🔌 {}: цепь разомкнута на {} с, ошибок подряд: {}", host,
+                    TimeUnit.NANOSECONDS.toSeconds(open), consecutiveFailures);
+        } else {
+            retryAt = now + backoffNanos(consecutiveFailures);
+        }
+    }
+
+    /**
+     * Загрузка отменена (пауза, остановка, сторож): ответа нет, и хосту она не засчитывается.
+     * Прерванная проба освобождается, и следующий запрос станет новой пробой.
+     */
+    public synchronized void onAbandoned() {
+        probeInFlight = false;
+    }
+
+    /**
+     * 429/503: ошибка для размыкателя, уменьшение лимита параллельных запросов
+     * и пауза не меньше Retry-After (но не больше max-retry-after).
+     */
+    public synchronized void onThrottled(long now, long latencyNanos, Duration retryAfter) {
+        onFailure(now, latencyNanos);
+        limit.onThrottled();
+        if (state == State.DEAD || retryAfter == null) return;
+        long wait = Math.min(retryAfter.toNanos(), concurrency.getMaxRetryAfter().toNanos());
+        if (retryAt - (now + wait) < 0) {
+            retryAt = now + wait;
+            log.info("⏸️ {}: Retry-After {} с, лимит параллельных запросов {}", host,
+                    TimeUnit.NANOSECONDS.toSeconds(wait), limit.limit());
+        }
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    public synchronized double latencyMs() {
+        return latencyMs;
+    }
+
+    public synchronized HostHealthDto snapshot(long now) {
+        HostHealthDto dto = new HostHealthDto();
+        dto.setHost(host);
+        dto.setState(state.name());
+        dto.setConsecutiveFailures(consecutiveFailures);
+        dto.setTrips(trips);
+        dto.setRequests(requests);
+        dto.setFailures(failures);
+        dto.setErrorRate(errorRate);
+        dto.setLatencyMs(latencyMs);
+        dto.setRetryAfterMs(TimeUnit.NANOSECONDS.toMillis(delayNanos(now)));
+        dto.setConcurrencyLimit(limit.limit());
+        dto.setInFlight(limit.inFlight());
+        dto.setP90LatencyMs(limit.p90Ms());
+        return dto;
+    }
+
+    /**
+     * Экспоненциальная пауза с «половинным» джиттером: от d/2 до d, где d = base * 2^(n-1), но не больше max.
+     */
+    long backoffNanos(int failures) {
+        long base = retry.getBaseDelay().toNanos();
+        long delay = Math.min(retry.getMaxDelay().toNanos(), base << Math.min(failures - 1, 30));
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    private void record(long latencyNanos, boolean failed) {
+        requests++;
+        if (failed) failures++;
+        double latency = latencyNanos / 1_000_000.0;
+        latencyMs = requests == 1 ? latency : latencyMs + ALPHA * (latency - latencyMs);
+        errorRate = errorRate + ALPHA * ((failed ? 1 : 0) - errorRate);
+    }
+}
@@ -0,0 +1,65 @@
+package searchengine.crawler;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import searchengine.config.CrawlerSettings;
+import searchengine.dto.HostHealthDto;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Состояние всех хостов, к которым обращался обходчик.
+ */
+@Component
+@RequiredArgsConstructor
+public class HostHealthRegistry implements HostPermits {
+
+    private final Map<String, HostHealth> hosts = new ConcurrentHashMap<>();
+    private final CrawlerSettings settings;
+
+    public HostHealth of(String host) {
+        return hosts.computeIfAbsent(host, h -> new HostHealth(h, settings.getRetry(), settings.getCircuit(),
+                settings.getConcurrency()));
+    }
+
+    @Override
+    public boolean tryAcquire(String host) {
+        return of(host).limit().tryAcquire();
+    }
+
+    @Override
+    public boolean tryAcquire(String host, Runnable onAvailable) {
+        return of(host).limit().tryAcquire(onAvailable);
+    }
+
+    @Override
+    public void release(String host) {
+        of(host).limit().release();
+    }
+
+    public long delayNanos(String host) {
+        HostHealth health = hosts.get(host);
+        return health == null ? 0 : health.delayNanos(System.nanoTime());
+    }
+
+    /**
+     * Новый обход начинает с чистого состояния хоста, в том числе снимает отметку о недоступности.
+     */
+    public void reset(String host) {
+        HostHealth removed = hosts.remove(host);
+        if (removed != null) {
+            removed.limit().wakeWaiters();
+        }
+    }
+
+    public List<HostHealthDto> snapshot() {
+        long now = System.nanoTime();
+        return hosts.values().stream()
+                .map(health -> health.snapshot(now))
+                .sorted(Comparator.comparing(HostHealthDto::getHost))
+                .toList();
+    }
+}
@@ -0,0 +1,31 @@
+package searchengine.crawler;
+
+/**
+ * Лимит одновременных запросов к хосту. Разрешение берётся перед отправкой запроса в работу
+ * и возвращается, когда обработчик обхода завершил загрузку.
+ */
+public interface HostPermits {
+
+    HostPermits UNLIMITED = new HostPermits() {
+        @Override
+        public boolean tryAcquire(String host) {
+            return true;
+        }
+
+        @Override
+        public void release(String host) {
+        }
+    };
+
+    boolean tryAcquire(String host);
+
+    /**
+     * Как {@link #tryAcquire(String)}, но при отказе onAvailable будет вызван один раз,
+     * когда хост вернёт разрешение.
+     */
+    default boolean tryAcquire(String host, Runnable onAvailable) {
+        return tryAcquire(host);
+    }
+
+    void release(String host);
+}
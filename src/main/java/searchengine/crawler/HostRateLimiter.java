@@ -0,0 +1,57 @@
+package searchengine.crawler;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import searchengine.config.Site;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Вежливость обхода: отдельный token bucket на каждый хост.
+ * Вместо Thread.sleep задачи откладываются через общий планировщик, потоки обхода не простаивают.
+ */
+@Slf4j
+@Component
+public class HostRateLimiter {
+
+    private static final Site DEFAULTS = new Site();
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "crawl-politeness-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public void register(String host, Site settings, Duration crawlDelay) {
+        double rate = settings.getCrawlRate();
+        Duration minDelay = settings.getMinDelay();
+        if (crawlDelay != null && crawlDelay.compareTo(minDelay) > 0) {
+            minDelay = crawlDelay;
+            rate = Math.min(rate, 1000.0 / Math.max(1, crawlDelay.toMillis()));
+        }
+        buckets.put(host, new TokenBucket(rate, settings.getCrawlBurst(), minDelay.toNanos(), System.nanoTime()));
+        log.info("🚦 Лимит для {}: {} запр/с, burst={}, minDelay={}", host, rate, settings.getCrawlBurst(), minDelay);
+    }
+
+    public long tryAcquire(String host) {
+        return buckets.computeIfAbsent(host, h -> newBucket(DEFAULTS)).tryAcquire(System.nanoTime());
+    }
+
+    public void schedule(Runnable task, long delayNanos) {
+        timer.schedule(task, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    private TokenBucket newBucket(Site settings) {
+        return new TokenBucket(settings.getCrawlRate(), settings.getCrawlBurst(),
+                settings.getMinDelay().toNanos(), System.nanoTime());
+    }
+}
@@ -0,0 +1,152 @@
+package searchengine.crawler;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
+import searchengine.config.CrawlerSettings;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Однопроходное извлечение заголовка, видимого текста и ссылок через jsoup StreamParser.
+ * Каждый закрытый элемент сразу заменяется текстовым узлом со своим текстом, поэтому
+ * в памяти остаётся только текст страницы, а не всё DOM-дерево.
+ */
+public final class HtmlExtractor {
+
+    private static final Set<String> SKIPPED = Set.of("script", "style", "noscript", "template", "svg", "iframe");
+    private static final Set<String> ROOTS = Set.of("html", "head", "body");
+    private static final int SNIFF_LIMIT = 5000;
+    private static final Pattern META_CHARSET = Pattern.compile(
+            "<meta[^>]+charset\\s*=\\s*[\"']?([\\w.:-]+)", Pattern.CASE_INSENSITIVE);
+    private static final BufferPool DEFAULT_POOL = new BufferPool(new CrawlerSettings());
+
+    private HtmlExtractor() {
+    }
+
+    public static PageContent extract(String html, String baseUri) {
+        try {
+            return extract(new StringReader(html), baseUri);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Разбирает поток в указанной кодировке. Если кодировка неизвестна, она берётся
+     * из BOM или meta charset в начале документа, иначе используется UTF-8.
+     */
+    public static PageContent extract(InputStream body, String charset, String baseUri) throws IOException {
+        return extract(body, charset, baseUri, DEFAULT_POOL);
+    }
+
+    /**
+     * То же, но байты читаются в буфер из пула и декодируются один раз — сразу в парсер.
+     * Начало тела для определения кодировки смотрится прямо в этом буфере.
+     */
+    public static PageContent extract(InputStream body, String charset, String baseUri, BufferPool pool)
+            throws IOException {
+        byte[] buffer = pool.acquire();
+        int filled;
+        try {
+            filled = body.readNBytes(buffer, 0, Math.min(SNIFF_LIMIT, buffer.length));
+        } catch (IOException e) {
+            pool.release(buffer);
+            throw e;
+        }
+        Charset decoded = charset != null ? forName(charset) : sniffCharset(buffer, filled);
+        int start = charset == null && hasUtf8Bom(buffer, filled) ? 3 : 0;
+        try (Reader reader = new DecodingReader(body, decoded, pool, buffer, start, filled)) {
+            return extract(reader, baseUri);
+        }
+    }
+
+    public static PageContent extract(Reader reader, String baseUri) throws IOException {
+        try (StreamParser parser = new StreamParser(Parser.htmlParser()).parse(reader, baseUri)) {
+            return extract(parser);
+        }
+    }
+
+    public static PageContent extract(StreamParser parser) throws IOException {
+        String title = "";
+        List<String> links = new ArrayList<>();
+        for (Element element : (Iterable<Element>) parser::iterator) {
+            String tag = element.normalName();
+            if (tag.equals("title")) {
+                title = element.text();
+                element.remove();
+                continue;
+            }
+            if (SKIPPED.contains(tag)) {
+                element.remove();
+                continue;
+            }
+            if (tag.equals("a")) {
+                String href = element.absUrl("href");
+                if (!href.isEmpty()) links.add(href);
+            }
+            if (ROOTS.contains(tag) || element.parent() == null) {
+                continue;
+            }
+            String text = element.text();
+            boolean separate = element.isBlock() || tag.equals("br");
+            element.replaceWith(new TextNode(separate ? " " + text + " " : text));
+        }
+        return new PageContent(title, parser.document().text(), links);
+    }
+
+    private static Charset sniffCharset(byte[] head, int length) {
+        if (hasUtf8Bom(head, length)) {
+            return StandardCharsets.UTF_8;
+        }
+        Matcher matcher = META_CHARSET.matcher(new Latin1(head, 0, length));
+        return matcher.find() ? forName(matcher.group(1)) : StandardCharsets.UTF_8;
+    }
+
+    private static boolean hasUtf8Bom(byte[] head, int length) {
+        return length >= 3 && (head[0] & 0xFF) == 0xEF && (head[1] & 0xFF) == 0xBB && (head[2] & 0xFF) == 0xBF;
+    }
+
+    /**
+     * Байты как символы ISO-8859-1 без копирования: для поиска meta charset этого достаточно.
+     */
+    private record Latin1(byte[] bytes, int from, int to) implements CharSequence {
+        @Override
+        public int length() {
+            return to - from;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (bytes[from + index] & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new Latin1(bytes, from + start, from + end);
+        }
+
+        @Override
+        public String toString() {
+            return new String(bytes, from, to - from, StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    private static Charset forName(String charset) {
+        try {
+            return Charset.forName(charset);
+        } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+            return StandardCharsets.UTF_8;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package searchengine.crawler;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import searchengine.config.CrawlerSettings;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.channels.UnresolvedAddressException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static searchengine.utils.UrlUtils.hostOf;
+
+/**
+ * Загрузка страниц через общий java.net.http.HttpClient:
+ * пул keep-alive соединений на хост, HTTP/2 с мультиплексированием и сжатие gzip/deflate.
+ * Страница разбирается потоково прямо из распакованного тела ответа, без построения DOM.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "indexing-settings.crawler.fetcher", havingValue = "http-client", matchIfMissing = true)
+public class HttpClientPageFetcher implements PageFetcher {
+
+    private final HttpClient client;
+    private final CrawlerSettings settings;
+    private final BufferPool buffers;
+
+    public HttpClientPageFetcher(CrawlerSettings settings, BufferPool buffers) {
+        this.settings = settings;
+        this.buffers = buffers;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(settings.getFetchTimeout())
+                .build();
+    }
+
+    /**
+     * Загрузка с учётом памяти: пул копит среднее число байт, выделенных потоком на страницу.
+     */
+    @Override
+    public FetchResult fetch(String url, String etag, String lastModified) throws IOException {
+        long before = allocatedBytes();
+        FetchResult result = load(url, etag, lastModified);
+        if (result.hasContent() && before >= 0) {
+            buffers.recordPage(allocatedBytes() - before);
+        }
+        return result;
+    }
+
+    private FetchResult load(String url, String etag, String lastModified) throws IOException {
+        HttpRequest.Builder builder = newRequest(url)
+                .header("Accept", "text/html,application/xhtml+xml;q=0.9,*/*;q=0.8");
+        if (etag != null) builder.header("If-None-Match", etag);
+        if (lastModified != null) builder.header("If-Modified-Since", lastModified);
+
+        HttpResponse<InputStream> response = send(builder.build(), url);
+        HttpHeaders headers = response.headers();
+        String contentType = headers.firstValue("Content-Type").orElse(null);
+        String newEtag = headers.firstValue("ETag").orElse(etag);
+        String newLastModified = headers.firstValue("Last-Modified").orElse(lastModified);
+        try (InputStream body = decode(response.body(), headers.firstValue("Content-Encoding").orElse(""))) {
+            log.debug("🌐 {} {} {}", response.version(), response.statusCode(), url);
+            String rejected = ResponseGate.rejectReason(response.statusCode(), contentType,
+                    headers.firstValueAsLong("Content-Length").orElse(-1), settings);
+            if (rejected != null) {
+                log.debug("🚫 Тело {} не читается: {}", url, rejected);
+                return new FetchResult(url, response.statusCode(), contentType, newEtag, newLastModified, null,
+                        ResponseGate.retryAfter(headers.firstValue("Retry-After").orElse(null), Instant.now()));
+            }
+            long limit = settings.getMaxBodySize().toBytes();
+            BoundedInputStream bounded = new BoundedInputStream(body, limit);
+            PageContent content = HtmlExtractor.extract(bounded, charsetOf(contentType),
+                    response.uri().toString(), buffers);
+            if (bounded.exceeded()) {
+                log.debug("🚫 Тело {} больше лимита {} байт, страница не индексируется", url, limit);
+                return new FetchResult(url, response.statusCode(), contentType, newEtag, newLastModified, null);
+            }
+            return new FetchResult(url, response.statusCode(), contentType, newEtag, newLastModified, content);
+        }
+    }
+
+    @Override
+    public String fetchText(String url) throws IOException {
+        HttpResponse<InputStream> response = send(newRequest(url).build(), url);
+        try (InputStream body = decode(response.body(), response.headers().firstValue("Content-Encoding").orElse(""));
+             InputStream content = url.endsWith(".gz") ? new GZIPInputStream(body) : body) {
+            if (response.statusCode() != 200) {
+                log.debug("🌐 {} {}: текст не получен", response.statusCode(), url);
+                return null;
+            }
+            String charset = charsetOf(response.headers().firstValue("Content-Type").orElse(null));
+            return new String(content.readAllBytes(), charset == null ? StandardCharsets.UTF_8 : Charset.forName(charset));
+        }
+    }
+
+    private HttpRequest.Builder newRequest(String url) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(settings.getFetchTimeout())
+                .header("User-Agent", settings.getUserAgent())
+                .header("Referer", settings.getReferrer())
+                .header("Accept-Encoding", "gzip, deflate")
+                .GET();
+    }
+
+    private HttpResponse<InputStream> send(HttpRequest request, String url) throws IOException {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Загрузка прервана: " + url);
+        } catch (IOException e) {
+            if (hasCause(e, UnresolvedAddressException.class)) {
+                throw new UnknownHostException(hostOf(url));
+            }
+            throw e;
+        }
+    }
+
+    private static InputStream decode(InputStream body, String encoding) throws IOException {
+        return switch (encoding.trim().toLowerCase(Locale.ROOT)) {
+            case "gzip", "x-gzip" -> new GZIPInputStream(body);
+            case "deflate" -> new InflaterInputStream(body);
+            default -> body;
+        };
+    }
+
+    private static String charsetOf(String contentType) {
+        if (contentType == null) return null;
+        int index = contentType.toLowerCase(Locale.ROOT).indexOf("charset=");
+        if (index < 0) return null;
+        String charset = contentType.substring(index + 8).trim();
+        int end = charset.indexOf(';');
+        if (end >= 0) charset = charset.substring(0, end);
+        charset = charset.replace("\"", "").trim();
+        return charset.isEmpty() ? null : charset;
+    }
+
+    /**
+     * Байты, выделенные текущим потоком, или -1, если JVM этого не умеет (в том числе для виртуальных потоков).
+     */
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    private static boolean hasCause(Throwable e, Class<? extends Throwable> type) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (type.isInstance(t)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,49 @@
+package searchengine.crawler;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import searchengine.config.CrawlerSettings;
+import searchengine.dto.PipelineStageDto;
+
+import java.util.List;
+
+/**
+ * Стадии индексации после загрузки страницы: разбор (хэши, SimHash, лемматизация) на CPU
+ * и запись в БД. Загрузкой занимается очередь обхода, и сетевые потоки не ждут MySQL:
+ * они лишь передают страницу дальше, пока очередь разбора не заполнится.
+ */
+@Slf4j
+@Component
+public class IndexingPipeline {
+
+    private final PipelineStage parse;
+    private final PipelineStage write;
+
+    public IndexingPipeline(CrawlerSettings settings) {
+        CrawlerSettings.Pipeline pipeline = settings.getPipeline();
+        this.parse = new PipelineStage("parse", pipeline.getParseThreads(), pipeline.getParseQueue());
+        this.write = new PipelineStage("write", pipeline.getWriteThreads(), pipeline.getWriteQueue());
+        log.info("🏭 Конвейер индексации: разбор {} потоков (очередь {}), запись {} потоков (очередь {})",
+                pipeline.getParseThreads(), pipeline.getParseQueue(),
+                pipeline.getWriteThreads(), pipeline.getWriteQueue());
+    }
+
+    public void parse(Runnable task) {
+        parse.submit(task);
+    }
+
+    public void write(Runnable task) {
+        write.submit(task);
+    }
+
+    public List<PipelineStageDto> snapshot() {
+        return List.of(parse.snapshot(), write.snapshot());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        parse.shutdown();
+        write.shutdown();
+    }
+}
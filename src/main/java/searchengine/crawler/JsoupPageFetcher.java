@@ -0,0 +1,81 @@
+package searchengine.crawler;
+
+import lombok.RequiredArgsConstructor;
+import org.jsoup.Connection;
+import org.jsoup.Jsoup;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import searchengine.config.CrawlerSettings;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.zip.GZIPInputStream;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "indexing-settings.crawler.fetcher", havingValue = "jsoup")
+public class JsoupPageFetcher implements PageFetcher {
+
+    private final CrawlerSettings settings;
+
+    @Override
+    public FetchResult fetch(String url, String etag, String lastModified) throws IOException {
+        Connection connection = connect(url);
+        if (etag != null) connection.header("If-None-Match", etag);
+        if (lastModified != null) connection.header("If-Modified-Since", lastModified);
+
+        Connection.Response response = connection.execute();
+        String newEtag = response.hasHeader("ETag") ? response.header("ETag") : etag;
+        String newLastModified = response.hasHeader("Last-Modified") ? response.header("Last-Modified") : lastModified;
+        long contentLength = response.hasHeader("Content-Length")
+                ? parseLength(response.header("Content-Length")) : -1;
+        if (ResponseGate.rejectReason(response.statusCode(), response.contentType(), contentLength, settings) != null) {
+            return new FetchResult(url, response.statusCode(), response.contentType(), newEtag, newLastModified, null,
+                    ResponseGate.retryAfter(response.header("Retry-After"), Instant.now()));
+        }
+        try (BoundedInputStream body = new BoundedInputStream(response.bodyStream(),
+                settings.getMaxBodySize().toBytes())) {
+            PageContent content = HtmlExtractor.extract(body, response.charset(), response.url().toString());
+            return new FetchResult(url, response.statusCode(), response.contentType(), newEtag, newLastModified,
+                    body.exceeded() ? null : content);
+        }
+    }
+
+    @Override
+    public String fetchText(String url) throws IOException {
+        Connection.Response response = connect(url).execute();
+        if (response.statusCode() != 200) {
+            return null;
+        }
+        if (!url.endsWith(".gz")) {
+            return response.body();
+        }
+        try (InputStream content = new GZIPInputStream(new ByteArrayInputStream(response.bodyAsBytes()))) {
+            return new String(content.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static long parseLength(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Тело читается без лимита jsoup: он молча обрезает тело, а лимит страницы проверяет {@link BoundedInputStream}.
+     */
+    private Connection connect(String url) {
+        return Jsoup.connect(url)
+                .timeout((int) settings.getFetchTimeout().toMillis())
+                .ignoreHttpErrors(true)
+                .ignoreContentType(true)
+                .maxBodySize(0)
+                .userAgent(settings.getUserAgent())
+                .referrer(settings.getReferrer());
+    }
+}
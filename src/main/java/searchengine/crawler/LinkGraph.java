@@ -0,0 +1,120 @@
+package searchengine.crawler;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Граф ссылок сайта в форме CSR: вершины — номера 0..n-1, входящие рёбра вершины v лежат
+ * в inSources[inOffsets[v]..inOffsets[v+1]). Граф хранится сразу транспонированным, поэтому каждая итерация
+ * PageRank параллельно «собирает» вклад входящих рёбер без синхронизации между потоками.
+ */
+public final class LinkGraph {
+
+    private final int size;
+    private final int[] outDegree;
+    private final int[] inOffsets;
+    private final int[] inSources;
+
+    private LinkGraph(int size, int[] outDegree, int[] inOffsets, int[] inSources) {
+        this.size = size;
+        this.outDegree = outDegree;
+        this.inOffsets = inOffsets;
+        this.inSources = inSources;
+    }
+
+    /**
+     * @param adjacency исходящие рёбра каждой вершины; петли и повторы должны быть уже удалены
+     */
+    public static LinkGraph of(int[][] adjacency) {
+        int n = adjacency.length;
+        int[] outDegree = new int[n];
+        int[] inOffsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            outDegree[v] = adjacency[v].length;
+            for (int target : adjacency[v]) {
+                inOffsets[target + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            inOffsets[v + 1] += inOffsets[v];
+        }
+        int[] inSources = new int[inOffsets[n]];
+        int[] fill = Arrays.copyOf(inOffsets, n);
+        for (int v = 0; v < n; v++) {
+            for (int target : adjacency[v]) {
+                inSources[fill[target]++] = v;
+            }
+        }
+        return new LinkGraph(n, outDegree, inOffsets, inSources);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int edgeCount() {
+        return inSources.length;
+    }
+
+    /**
+     * PageRank степенным методом. Ранг страниц без исходящих ссылок делится поровну между всеми вершинами.
+     *
+     * @return ранги, сумма которых равна 1
+     */
+    public double[] pageRank(double damping, int maxIterations, double tolerance) {
+        if (size == 0) {
+            return new double[0];
+        }
+        double[] rank = new double[size];
+        double[] next = new double[size];
+        double[] contribution = new double[size];
+        Arrays.fill(rank, 1.0 / size);
+
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            double[] current = rank;
+            double dangling = IntStream.range(0, size).parallel()
+                    .filter(v -> outDegree[v] == 0)
+                    .mapToDouble(v -> current[v])
+                    .sum();
+            IntStream.range(0, size).parallel()
+                    .forEach(v -> contribution[v] = outDegree[v] == 0 ? 0 : current[v] / outDegree[v]);
+            double base = (1 - damping) / size + damping * dangling / size;
+            double[] target = next;
+            IntStream.range(0, size).parallel().forEach(v -> {
+                double sum = 0;
+                for (int i = inOffsets[v]; i < inOffsets[v + 1]; i++) {
+                    sum += contribution[inSources[i]];
+                }
+                target[v] = base + damping * sum;
+            });
+            double delta = IntStream.range(0, size).parallel()
+                    .mapToDouble(v -> Math.abs(target[v] - current[v]))
+                    .sum();
+            next = rank;
+            rank = target;
+            if (delta < tolerance) {
+                break;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Упаковка списка id страниц в байты: 4 байта на ссылку.
+     */
+    public static byte[] encode(int[] pageIds) {
+        ByteBuffer buffer = ByteBuffer.allocate(pageIds.length * Integer.BYTES);
+        buffer.asIntBuffer().put(pageIds);
+        return buffer.array();
+    }
+
+    public static int[] decode(byte[] packed) {
+        if (packed == null) {
+            return new int[0];
+        }
+        int[] pageIds = new int[packed.length / Integer.BYTES];
+        ByteBuffer.wrap(packed).asIntBuffer().get(pageIds);
+        return pageIds;
+    }
+}
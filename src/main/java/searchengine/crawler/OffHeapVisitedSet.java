@@ -0,0 +1,101 @@
+package searchengine.crawler;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Множество отпечатков вне кучи: таблица long с открытой адресацией и линейным пробированием
+ * в direct ByteBuffer. 8 байт на слот вместо ~80 байт на Long в ConcurrentHashMap,
+ * и GC не обходит эти данные. Вставка без блокировок — CAS по слоту.
+ * <p>
+ * Размер таблицы задаётся бюджетом памяти и не растёт; заполнение ограничено {@link #MAX_LOAD},
+ * чтобы пробы оставались короткими. Когда бюджет исчерпан, {@link #add} возвращает false.
+ */
+public final class OffHeapVisitedSet implements VisitedSet {
+
+    static final double MAX_LOAD = 0.75;
+    private static final long EMPTY = 0L;
+    private static final int MAX_SLOTS = 1 << 28; // ByteBuffer адресуется int: не больше 2 ГБ
+    private static final VarHandle SLOT = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final ByteBuffer table;
+    private final int mask;
+    private final int maxSize;
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean containsEmpty = new AtomicBoolean();
+
+    public OffHeapVisitedSet(long memoryBytes) {
+        long slots = Long.highestOneBit(Math.max(16, Math.min(memoryBytes / Long.BYTES, MAX_SLOTS)));
+        this.table = ByteBuffer.allocateDirect((int) slots * Long.BYTES);
+        this.mask = (int) slots - 1;
+        this.maxSize = (int) (slots * MAX_LOAD);
+    }
+
+    @Override
+    public boolean add(long key) {
+        if (key == EMPTY) {
+            return containsEmpty.compareAndSet(false, true);
+        }
+        int index = indexOf(key);
+        while (true) {
+            int offset = index * Long.BYTES;
+            long current = (long) SLOT.getVolatile(table, offset);
+            if (current == key) {
+                return false;
+            }
+            if (current != EMPTY) {
+                index = (index + 1) & mask;
+                continue;
+            }
+            if (size.incrementAndGet() > maxSize) {
+                size.decrementAndGet();
+                return false;
+            }
+            if (SLOT.compareAndSet(table, offset, EMPTY, key)) {
+                return true;
+            }
+            size.decrementAndGet();
+        }
+    }
+
+    @Override
+    public boolean contains(long key) {
+        if (key == EMPTY) {
+            return containsEmpty.get();
+        }
+        int index = indexOf(key);
+        while (true) {
+            long current = (long) SLOT.getVolatile(table, index * Long.BYTES);
+            if (current == key) {
+                return true;
+            }
+            if (current == EMPTY) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    @Override
+    public int size() {
+        return size.get() + (containsEmpty.get() ? 1 : 0);
+    }
+
+    @Override
+    public boolean isFull() {
+        return size.get() >= maxSize;
+    }
+
+    public int capacity() {
+        return maxSize;
+    }
+
+    private int indexOf(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,23 @@
+package searchengine.crawler;
+
+import java.util.List;
+
+/**
+ * То, что индексатору нужно от HTML-страницы: заголовок, видимый текст и ссылки.
+ */
+public record PageContent(String title, String text, List<String> links) {
+
+    public static final PageContent EMPTY = new PageContent("", "", List.of());
+
+    public PageContent withoutText() {
+        return new PageContent(title, "", links);
+    }
+
+    public String joinedLinks() {
+        return String.join("\n", links);
+    }
+
+    public static List<String> splitLinks(String joined) {
+        return joined == null || joined.isEmpty() ? List.of() : List.of(joined.split("\n"));
+    }
+}
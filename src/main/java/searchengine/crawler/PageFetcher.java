@@ -0,0 +1,14 @@
+package searchengine.crawler;
+
+import java.io.IOException;
+
+public interface PageFetcher {
+
+    FetchResult fetch(String url, String etag, String lastModified) throws IOException;
+
+    String fetchText(String url) throws IOException;
+
+    default FetchResult fetch(String url) throws IOException {
+        return fetch(url, null, null);
+    }
+}
@@ -0,0 +1,60 @@
+package searchengine.crawler;
+
+import searchengine.dto.PipelineStageDto;
+import searchengine.exceptions.IndexingInterruptedException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стадия конвейера индексации: фиксированное число потоков и ограниченная очередь.
+ * Когда очередь полна, {@link #submit} ждёт, и предыдущая стадия замедляется вместе с ней.
+ */
+public class PipelineStage {
+
+    private final String name;
+    private final int capacity;
+    private final ThreadPoolExecutor executor;
+
+    public PipelineStage(String name, int threads, int capacity) {
+        this.name = name;
+        this.capacity = Math.max(1, capacity);
+        int size = Math.max(1, threads);
+        this.executor = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(this.capacity), Thread.ofPlatform().name("pipeline-" + name + "-", 1).factory());
+        this.executor.prestartAllCoreThreads();
+    }
+
+    /**
+     * Ставит задачу в очередь стадии, при полной очереди ждёт свободного места.
+     */
+    public void submit(Runnable task) {
+        if (executor.isShutdown()) {
+            throw new IllegalStateException("Стадия " + name + " остановлена");
+        }
+        BlockingQueue<Runnable> queue = executor.getQueue();
+        try {
+            queue.put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IndexingInterruptedException("Индексация остановлена пользователем");
+        }
+    }
+
+    public PipelineStageDto snapshot() {
+        PipelineStageDto dto = new PipelineStageDto();
+        dto.setStage(name);
+        dto.setThreads(executor.getCorePoolSize());
+        dto.setQueued(executor.getQueue().size());
+        dto.setCapacity(capacity);
+        dto.setActive(executor.getActiveCount());
+        dto.setCompleted(executor.getCompletedTaskCount());
+        return dto;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,67 @@
+package searchengine.crawler;
+
+import searchengine.config.CrawlerSettings;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * Решает по заголовкам ответа, читать ли тело: тело не 2xx-ответа, не HTML и заведомо
+ * больше лимита не загружается.
+ */
+final class ResponseGate {
+
+    private ResponseGate() {
+    }
+
+    /**
+     * @return причина отказа или null, если тело нужно прочитать
+     */
+    static String rejectReason(int statusCode, String contentType, long contentLength, CrawlerSettings settings) {
+        if (statusCode < 200 || statusCode >= 300) {
+            return "HTTP " + statusCode;
+        }
+        if (!isAccepted(contentType, settings)) {
+            return "тип " + contentType;
+        }
+        long limit = settings.getMaxBodySize().toBytes();
+        if (contentLength > limit) {
+            return "размер " + contentLength + " байт больше лимита " + limit;
+        }
+        return null;
+    }
+
+    /**
+     * Retry-After: число секунд или HTTP-дата (RFC 9110, 10.2.3).
+     *
+     * @return пауза не меньше нуля или null, если заголовка нет или он некорректен
+     */
+    static Duration retryAfter(String value, Instant now) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(trimmed)));
+        } catch (NumberFormatException e) {
+            try {
+                Instant at = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+                return at.isAfter(now) ? Duration.between(now, at) : Duration.ZERO;
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+
+    private static boolean isAccepted(String contentType, CrawlerSettings settings) {
+        if (contentType == null || contentType.isBlank()) {
+            return true;
+        }
+        String mime = contentType.split(";")[0].trim().toLowerCase(Locale.ROOT);
+        return settings.getContentTypes().contains(mime);
+    }
+}
@@ -0,0 +1,59 @@
+package searchengine.crawler;
+
+import searchengine.config.CrawlerSettings;
+
+import java.time.Duration;
+
+/**
+ * Оценка частоты изменения страницы по результатам повторных визитов: интервал умножается
+ * на changedFactor, если страница изменилась, и на unchangedFactor, если нет, в пределах [min, max].
+ * Часто меняющиеся главные страницы быстро сходятся к минимуму, архивные статьи — к максимуму.
+ */
+public class RevisitSchedule {
+
+    private final Duration initial;
+    private final Duration min;
+    private final Duration max;
+    private final double changedFactor;
+    private final double unchangedFactor;
+
+    public RevisitSchedule(Duration initial, Duration min, Duration max, double changedFactor,
+                           double unchangedFactor) {
+        if (min.isNegative() || min.isZero() || max.compareTo(min) < 0) {
+            throw new IllegalArgumentException("Некорректные границы интервала перепроверки: " + min + ".." + max);
+        }
+        if (changedFactor <= 0 || changedFactor > 1 || unchangedFactor < 1) {
+            throw new IllegalArgumentException("Множители интервала должны быть в (0, 1] и [1, ∞): "
+                    + changedFactor + ", " + unchangedFactor);
+        }
+        this.min = min;
+        this.max = max;
+        this.initial = clamp(initial);
+        this.changedFactor = changedFactor;
+        this.unchangedFactor = unchangedFactor;
+    }
+
+    public static RevisitSchedule of(CrawlerSettings.Recrawl settings) {
+        return new RevisitSchedule(settings.getInitialInterval(), settings.getMinInterval(),
+                settings.getMaxInterval(), settings.getChangedFactor(), settings.getUnchangedFactor());
+    }
+
+    public Duration initial() {
+        return initial;
+    }
+
+    /**
+     * Интервал до следующего визита. {@code current} равен null у страниц, ещё не попавших в расписание.
+     */
+    public Duration next(Duration current, boolean changed) {
+        Duration base = current == null ? initial : current;
+        double factor = changed ? changedFactor : unchangedFactor;
+        return clamp(Duration.ofMillis((long) Math.min(Long.MAX_VALUE, base.toMillis() * factor)));
+    }
+
+    private Duration clamp(Duration interval) {
+        if (interval.compareTo(min) < 0) return min;
+        if (interval.compareTo(max) > 0) return max;
+        return interval;
+    }
+}
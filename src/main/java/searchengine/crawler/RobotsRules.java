@@ -0,0 +1,162 @@
+package searchengine.crawler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Правила robots.txt для нашего робота: Allow/Disallow с шаблонами '*' и '$',
+ * Crawl-delay и ссылки на карты сайта. Побеждает самое длинное совпавшее правило, при равенстве — Allow.
+ */
+public class RobotsRules {
+
+    private record Rule(String pattern, boolean allow) {}
+
+    private static final RobotsRules ALLOW_ALL = new RobotsRules(List.of(), null, List.of());
+
+    private final List<Rule> rules;
+    private final Duration crawlDelay;
+    private final List<String> sitemaps;
+
+    private RobotsRules(List<Rule> rules, Duration crawlDelay, List<String> sitemaps) {
+        this.rules = rules;
+        this.crawlDelay = crawlDelay;
+        this.sitemaps = sitemaps;
+    }
+
+    public static RobotsRules allowAll() {
+        return ALLOW_ALL;
+    }
+
+    public static RobotsRules parse(String content, String userAgent) {
+        if (content == null || content.isBlank()) return ALLOW_ALL;
+
+        String token = productToken(userAgent);
+        List<Rule> specificRules = new ArrayList<>();
+        List<Rule> wildcardRules = new ArrayList<>();
+        Duration specificDelay = null;
+        Duration wildcardDelay = null;
+        boolean specificGroupFound = false;
+        List<String> sitemaps = new ArrayList<>();
+
+        boolean inSpecific = false;
+        boolean inWildcard = false;
+        boolean groupHasRules = false;
+
+        for (String rawLine : content.split("\n")) {
+            int comment = rawLine.indexOf('#');
+            String line = (comment >= 0 ? rawLine.substring(0, comment) : rawLine).trim();
+            int colon = line.indexOf(':');
+            if (colon <= 0) continue;
+
+            String key = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            String value = line.substring(colon + 1).trim();
+
+            switch (key) {
+                case "user-agent" -> {
+                    if (groupHasRules) {
+                        inSpecific = false;
+                        inWildcard = false;
+                        groupHasRules = false;
+                    }
+                    String agent = value.toLowerCase(Locale.ROOT);
+                    if (agent.equals("*")) {
+                        inWildcard = true;
+                    } else if (!token.isEmpty() && token.startsWith(agent)) {
+                        inSpecific = true;
+                        specificGroupFound = true;
+                    }
+                }
+                case "allow", "disallow" -> {
+                    groupHasRules = true;
+                    if (value.isEmpty()) continue;
+                    Rule rule = new Rule(value, key.equals("allow"));
+                    if (inSpecific) specificRules.add(rule);
+                    if (inWildcard) wildcardRules.add(rule);
+                }
+                case "crawl-delay" -> {
+                    groupHasRules = true;
+                    Duration delay = parseDelay(value);
+                    if (inSpecific) specificDelay = delay;
+                    if (inWildcard) wildcardDelay = delay;
+                }
+                case "sitemap" -> sitemaps.add(value);
+                default -> { }
+            }
+        }
+
+        return specificGroupFound
+                ? new RobotsRules(List.copyOf(specificRules), specificDelay, List.copyOf(sitemaps))
+                : new RobotsRules(List.copyOf(wildcardRules), wildcardDelay, List.copyOf(sitemaps));
+    }
+
+    public boolean isAllowed(String path) {
+        int bestLength = -1;
+        boolean allowed = true;
+        for (Rule rule : rules) {
+            int length = rule.pattern().length();
+            if (length < bestLength || !matches(rule.pattern(), path)) continue;
+            if (length > bestLength || rule.allow()) {
+                allowed = rule.allow();
+            }
+            bestLength = length;
+        }
+        return allowed;
+    }
+
+    public Duration getCrawlDelay() {
+        return crawlDelay;
+    }
+
+    public List<String> getSitemaps() {
+        return sitemaps;
+    }
+
+    static boolean matches(String pattern, String path) {
+        boolean anchored = pattern.endsWith("$");
+        int patternEnd = anchored ? pattern.length() - 1 : pattern.length();
+        int p = 0;
+        int s = 0;
+        int starP = -1;
+        int starS = 0;
+
+        while (s < path.length()) {
+            if (p < patternEnd && pattern.charAt(p) == '*') {
+                starP = p++;
+                starS = s;
+            } else if (p < patternEnd && pattern.charAt(p) == path.charAt(s)) {
+                p++;
+                s++;
+            } else if (p == patternEnd && !anchored) {
+                return true;
+            } else if (starP >= 0) {
+                p = starP + 1;
+                s = ++starS;
+            } else {
+                return false;
+            }
+        }
+        while (p < patternEnd && pattern.charAt(p) == '*') {
+            p++;
+        }
+        return p == patternEnd;
+    }
+
+    private static String productToken(String userAgent) {
+        if (userAgent == null) return "";
+        int end = 0;
+        while (end < userAgent.length() && userAgent.charAt(end) != '/' && userAgent.charAt(end) != ' ') {
+            end++;
+        }
+        return userAgent.substring(0, end).toLowerCase(Locale.ROOT);
+    }
+
+    private static Duration parseDelay(String value) {
+        try {
+            return Duration.ofMillis((long) (Double.parseDouble(value) * 1000));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package searchengine.crawler;
+
+import searchengine.utils.SimHash;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Поиск почти-дубликатов по SimHash в памяти.
+ * Отпечаток делится на 4 блока по 16 бит: по принципу Дирихле у отпечатков с расстоянием
+ * не больше 3 хотя бы один блок совпадает, поэтому кандидаты ищутся по точному совпадению блока.
+ */
+public class SimHashIndex {
+
+    public static final int MAX_DISTANCE = 3;
+    private static final int BANDS = 4;
+
+    private record Entry(long fingerprint, int pageId) {}
+
+    private final Map<Integer, Queue<Entry>>[] bands;
+    private final int maxDistance;
+
+    @SuppressWarnings("unchecked")
+    public SimHashIndex(int maxDistance) {
+        this.maxDistance = Math.min(maxDistance, MAX_DISTANCE);
+        this.bands = new Map[BANDS];
+        for (int i = 0; i < BANDS; i++) {
+            bands[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    public boolean isEnabled() {
+        return maxDistance >= 0;
+    }
+
+    public Integer findNear(long fingerprint) {
+        if (!isEnabled()) return null;
+        for (int band = 0; band < BANDS; band++) {
+            Queue<Entry> candidates = bands[band].get(bandKey(fingerprint, band));
+            if (candidates == null) continue;
+            for (Entry entry : candidates) {
+                if (SimHash.distance(entry.fingerprint(), fingerprint) <= maxDistance) {
+                    return entry.pageId();
+                }
+            }
+        }
+        return null;
+    }
+
+    public void add(long fingerprint, int pageId) {
+        if (!isEnabled()) return;
+        Entry entry = new Entry(fingerprint, pageId);
+        for (int band = 0; band < BANDS; band++) {
+            bands[band].computeIfAbsent(bandKey(fingerprint, band), k -> new ConcurrentLinkedQueue<>()).add(entry);
+        }
+    }
+
+    private static int bandKey(long fingerprint, int band) {
+        return (int) ((fingerprint >>> (band * 16)) & 0xFFFF);
+    }
+}
@@ -0,0 +1,6 @@
+package searchengine.crawler;
+
+import java.time.Instant;
+
+public record SitemapEntry(String url, Instant lastModified) {
+}
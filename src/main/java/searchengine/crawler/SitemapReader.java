@@ -0,0 +1,94 @@
+package searchengine.crawler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.parser.Parser;
+import org.springframework.stereotype.Component;
+import searchengine.config.CrawlerSettings;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+/**
+ * Читает robots.txt и карты сайта (sitemap.xml, sitemap index, .xml.gz) для начального заполнения очереди обхода.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SitemapReader {
+
+    private static final int MAX_SITEMAPS = 50;
+
+    private final PageFetcher pageFetcher;
+    private final CrawlerSettings settings;
+
+    public RobotsRules readRobots(String siteUrl) {
+        try {
+            String content = pageFetcher.fetchText(siteUrl + "/robots.txt");
+            RobotsRules rules = RobotsRules.parse(content, settings.getUserAgent());
+            log.info("🤖 robots.txt для {}: crawl-delay={}, карт сайта: {}",
+                    siteUrl, rules.getCrawlDelay(), rules.getSitemaps().size());
+            return rules;
+        } catch (IOException | RuntimeException e) {
+            log.warn("⚠️ robots.txt недоступен для {}: {}", siteUrl, e.getMessage());
+            return RobotsRules.allowAll();
+        }
+    }
+
+    public List<SitemapEntry> readSitemaps(String siteUrl, RobotsRules robots) {
+        Deque<String> sitemaps = new ArrayDeque<>(robots.getSitemaps());
+        if (sitemaps.isEmpty()) {
+            sitemaps.add(siteUrl + "/sitemap.xml");
+        }
+
+        Map<String, SitemapEntry> entries = new LinkedHashMap<>();
+        Set<String> seen = new HashSet<>();
+        while (!sitemaps.isEmpty() && seen.size() < MAX_SITEMAPS && entries.size() < settings.getMaxSitemapUrls()) {
+            String sitemapUrl = sitemaps.poll();
+            if (!seen.add(sitemapUrl)) continue;
+            try {
+                String content = pageFetcher.fetchText(sitemapUrl);
+                if (content == null) continue;
+                Document document = Jsoup.parse(content, sitemapUrl, Parser.xmlParser());
+                for (Element loc : document.select("sitemapindex > sitemap > loc")) {
+                    sitemaps.add(loc.text().trim());
+                }
+                for (Element url : document.select("urlset > url")) {
+                    String loc = url.select("loc").text().trim();
+                    if (loc.isEmpty() || entries.size() >= settings.getMaxSitemapUrls()) continue;
+                    entries.putIfAbsent(loc, new SitemapEntry(loc, parseLastModified(url.select("lastmod").text())));
+                }
+            } catch (IOException | RuntimeException e) {
+                log.warn("⚠️ Не удалось прочитать карту сайта {}: {}", sitemapUrl, e.getMessage());
+            }
+        }
+
+        List<SitemapEntry> result = new ArrayList<>(entries.values());
+        result.sort(Comparator.comparing(SitemapEntry::lastModified, Comparator.nullsLast(Comparator.reverseOrder())));
+        log.info("🗺️ Из карт сайта {} получено {} адресов ({} карт)", siteUrl, result.size(), seen.size());
+        return result;
+    }
+
+    private static Instant parseLastModified(String value) {
+        String text = value.trim();
+        if (text.isEmpty()) return null;
+        try {
+            return OffsetDateTime.parse(text).toInstant();
+        } catch (DateTimeParseException e) {
+            try {
+                return LocalDate.parse(text.length() > 10 ? text.substring(0, 10) : text)
+                        .atStartOfDay().toInstant(ZoneOffset.UTC);
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+}
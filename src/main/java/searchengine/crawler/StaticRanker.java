@@ -0,0 +1,121 @@
+package searchengine.crawler;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import searchengine.config.CrawlerSettings;
+import searchengine.model.SiteEntity;
+import searchengine.repositories.PageRepository;
+import searchengine.repositories.PageRepositoryCustom.LinkGraphRow;
+import searchengine.utils.UrlCanonicalizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Пересчёт статического ранга страниц сайта после обхода. Вершины графа — канонические страницы:
+ * ссылки на почти-дубликат засчитываются его канонической странице, а сами дубликаты ранга не получают.
+ * Ссылки читаются из page.links порциями, граф сохраняется в page.out_links, PageRank по нему —
+ * в page.static_rank; запись идёт пачками многострочных UPDATE.
+ */
+@Slf4j
+public class StaticRanker {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private final PageRepository pageRepository;
+    private final CrawlBudget budget;
+    private final CrawlerSettings.StaticRank settings;
+
+    public StaticRanker(PageRepository pageRepository, CrawlBudget budget, CrawlerSettings.StaticRank settings) {
+        this.pageRepository = pageRepository;
+        this.budget = budget;
+        this.settings = settings;
+    }
+
+    public void rank(SiteEntity site) {
+        long started = System.nanoTime();
+        List<Object[]> rows = pageRepository.findLinkVerticesBySiteId(site.getId());
+
+        List<Integer> canonical = new ArrayList<>();
+        Map<Integer, Integer> vertexById = new HashMap<>(rows.size() * 2);
+        for (Object[] row : rows) {
+            if (row[2] == null) {
+                vertexById.put((Integer) row[0], canonical.size());
+                canonical.add((Integer) row[0]);
+            }
+        }
+        int n = canonical.size();
+        if (n == 0) {
+            return;
+        }
+        int[] pageIds = canonical.stream().mapToInt(Integer::intValue).toArray();
+        Map<String, Integer> vertexByPath = new HashMap<>(rows.size() * 2);
+        for (Object[] row : rows) {
+            Integer target = vertexById.get((Integer) (row[2] == null ? row[0] : row[2]));
+            if (target != null) {
+                vertexByPath.put((String) row[1], target);
+            }
+        }
+
+        int[][] adjacency = new int[n][];
+        int afterId = 0;
+        List<Object[]> chunk;
+        do {
+            chunk = pageRepository.findLinksBySiteIdAfter(site.getId(), afterId, PageRequest.of(0, CHUNK_SIZE));
+            for (Object[] row : chunk) {
+                int vertex = vertexById.get((Integer) row[0]);
+                adjacency[vertex] = targets(site.getUrl(), vertex, PageContent.splitLinks((String) row[1]),
+                        vertexByPath);
+                afterId = (Integer) row[0];
+            }
+        } while (chunk.size() == CHUNK_SIZE);
+        for (int v = 0; v < n; v++) {
+            if (adjacency[v] == null) {
+                adjacency[v] = new int[0];
+            }
+        }
+
+        LinkGraph graph = LinkGraph.of(adjacency);
+        double[] rank = graph.pageRank(settings.getDamping(), settings.getMaxIterations(), settings.getTolerance());
+
+        List<LinkGraphRow> batch = new ArrayList<>(CHUNK_SIZE);
+        for (int v = 0; v < n; v++) {
+            int[] out = new int[adjacency[v].length];
+            for (int i = 0; i < out.length; i++) {
+                out[i] = pageIds[adjacency[v][i]];
+            }
+            batch.add(new LinkGraphRow(pageIds[v], LinkGraph.encode(out), (float) (rank[v] * n)));
+            if (batch.size() == CHUNK_SIZE || v == n - 1) {
+                List<LinkGraphRow> rowsToWrite = List.copyOf(batch);
+                budget.write(() -> {
+                    pageRepository.updateLinkGraphs(rowsToWrite);
+                    return null;
+                });
+                batch.clear();
+            }
+        }
+        budget.write(() -> pageRepository.clearDuplicateLinkGraph(site.getId()));
+        log.info("📊 Статический ранг {}: страниц {}, ссылок {}, {} мс", site.getUrl(), n, graph.edgeCount(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Номера вершин, на которые ссылается страница: без внешних ссылок, петель и повторов.
+     */
+    private static int[] targets(String siteUrl, int source, List<String> links, Map<String, Integer> vertexByPath) {
+        int[] out = new int[links.size()];
+        int count = 0;
+        for (String link : links) {
+            String canonical = UrlCanonicalizer.canonicalUrl(link);
+            if (canonical == null || !UrlCanonicalizer.isWithin(canonical, siteUrl)) continue;
+            Integer target = vertexByPath.get(UrlCanonicalizer.path(canonical));
+            if (target != null && target != source) {
+                out[count++] = target;
+            }
+        }
+        return Arrays.stream(out, 0, count).distinct().toArray();
+    }
+}
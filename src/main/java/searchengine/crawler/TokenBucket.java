@@ -0,0 +1,45 @@
+package searchengine.crawler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket с минимальным интервалом между запросами.
+ * Никогда не блокирует: если разрешения нет, возвращает время ожидания в наносекундах.
+ */
+public class TokenBucket {
+
+    private final double tokensPerNano;
+    private final double capacity;
+    private final long minGapNanos;
+    private double tokens;
+    private long lastRefill;
+    private long lastGrant;
+    private boolean granted;
+
+    public TokenBucket(double ratePerSecond, int burst, long minGapNanos, long now) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("Скорость обхода должна быть положительной: " + ratePerSecond);
+        }
+        this.tokensPerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = Math.max(1, burst);
+        this.minGapNanos = Math.max(0, minGapNanos);
+        this.tokens = capacity;
+        this.lastRefill = now;
+    }
+
+    public synchronized long tryAcquire(long now) {
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+
+        long gapWait = granted ? lastGrant + minGapNanos - now : 0;
+        long tokenWait = tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / tokensPerNano);
+        long wait = Math.max(gapWait, tokenWait);
+        if (wait > 0) {
+            return wait;
+        }
+        tokens -= 1;
+        lastGrant = now;
+        granted = true;
+        return 0;
+    }
+}
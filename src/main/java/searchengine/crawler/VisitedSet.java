@@ -0,0 +1,21 @@
+package searchengine.crawler;
+
+/**
+ * Множество 64-битных отпечатков пройденных адресов. Вставка должна быть потокобезопасной.
+ */
+public interface VisitedSet {
+
+    /**
+     * @return true, если ключ добавлен впервые; false — если он уже был или места больше нет
+     */
+    boolean add(long key);
+
+    boolean contains(long key);
+
+    int size();
+
+    /**
+     * Исчерпан ли бюджет памяти: новые ключи больше не принимаются.
+     */
+    boolean isFull();
+}
@@ -0,0 +1,122 @@
+package searchengine.crawler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Общий на все сайты пул слотов с весами.
+ * Каждый сайт гарантированно получает долю пула, пропорциональную весу. Свободные слоты сверх доли
+ * можно занять, только если ни один сайт, не выбравший свою долю, не ждёт слота.
+ * Захват не блокирует: отказанный сайт помечается ожидающим и получает уведомление при освобождении слота.
+ */
+public class WeightedSlots {
+
+    private final int capacity;
+    private final Set<Share> shares = new CopyOnWriteArraySet<>();
+    private int used;
+    private int totalWeight;
+
+    public WeightedSlots(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    public synchronized Share register(String name, int weight) {
+        Share share = new Share(name, Math.max(1, weight));
+        shares.add(share);
+        totalWeight += share.weight;
+        return share;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public synchronized int used() {
+        return used;
+    }
+
+    private synchronized boolean tryAcquire(Share share) {
+        boolean granted = used < capacity
+                && (share.used < quota(share) || shares.stream().noneMatch(s -> s != share && s.starving()));
+        share.waiting = !granted;
+        if (granted) {
+            used++;
+            share.used++;
+        }
+        return granted;
+    }
+
+    private void release(Share share) {
+        List<Runnable> callbacks = new ArrayList<>();
+        synchronized (this) {
+            used--;
+            share.used--;
+            for (Share s : shares) {
+                if (s.waiting && s.onAvailable != null) {
+                    callbacks.add(s.onAvailable);
+                }
+            }
+        }
+        callbacks.forEach(Runnable::run);
+    }
+
+    private synchronized void unregister(Share share) {
+        if (shares.remove(share)) {
+            totalWeight -= share.weight;
+        }
+    }
+
+    private int quota(Share share) {
+        return Math.max(1, (int) ((long) capacity * share.weight / Math.max(1, totalWeight)));
+    }
+
+    public final class Share implements AutoCloseable {
+
+        private final String name;
+        private final int weight;
+        private int used;
+        private boolean waiting;
+        private volatile Runnable onAvailable;
+
+        private Share(String name, int weight) {
+            this.name = name;
+            this.weight = weight;
+        }
+
+        /**
+         * Вызывается, когда ожидающему сайту может достаться освободившийся слот.
+         */
+        public void onAvailable(Runnable callback) {
+            this.onAvailable = callback;
+        }
+
+        public boolean tryAcquire() {
+            return WeightedSlots.this.tryAcquire(this);
+        }
+
+        public void release() {
+            WeightedSlots.this.release(this);
+        }
+
+        public int used() {
+            synchronized (WeightedSlots.this) {
+                return used;
+            }
+        }
+
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public void close() {
+            unregister(this);
+        }
+
+        private boolean starving() {
+            return waiting && used < quota(this);
+        }
+    }
+}
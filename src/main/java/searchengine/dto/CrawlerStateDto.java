@@ -0,0 +1,11 @@
+package searchengine.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CrawlerStateDto {
+    private List<SiteCrawlDto> sites;
+    private List<HostHealthDto> hosts;
+}
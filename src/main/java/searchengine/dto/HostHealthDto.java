@@ -0,0 +1,19 @@
+package searchengine.dto;
+
+import lombok.Data;
+
+@Data
+public class HostHealthDto {
+    private String host;
+    private String state;
+    private int consecutiveFailures;
+    private int trips;
+    private long requests;
+    private long failures;
+    private double errorRate;
+    private double latencyMs;
+    private long retryAfterMs;
+    private int concurrencyLimit;
+    private int inFlight;
+    private double p90LatencyMs;
+}
@@ -0,0 +1,16 @@
+package searchengine.dto;
+
+import lombok.Data;
+
+@Data
+public class InFlightFetchDto {
+    private String url;
+    private String host;
+    private int depth;
+    private int attempt;
+    private long ageMs;
+    private String thread;
+    private String threadState;
+    private boolean stuck;
+    private boolean cancelled;
+}
@@ -0,0 +1,19 @@
+package searchengine.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class JobDto {
+    private int id;
+    private String type;
+    private List<String> urls;
+    private int priority;
+    private String status;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
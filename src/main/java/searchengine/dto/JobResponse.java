@@ -0,0 +1,10 @@
+package searchengine.dto;
+
+import lombok.Data;
+
+@Data
+public class JobResponse {
+    private boolean result;
+    private String error;
+    private JobDto job;
+}
@@ -0,0 +1,22 @@
+package searchengine.dto;
+
+import lombok.Data;
+
+/**
+ * Пропускная способность и задержки заданий с запуска процесса: ожидание в очереди и время выполнения.
+ */
+@Data
+public class JobStatsDto {
+    private int workers;
+    private int queued;
+    private int running;
+    private long submitted;
+    private long done;
+    private long failed;
+    private long cancelled;
+    private double throughputPerHour;
+    private long avgWaitMs;
+    private long maxWaitMs;
+    private long avgRunMs;
+    private long maxRunMs;
+}
@@ -0,0 +1,8 @@
+package searchengine.dto;
+
+public record PageMetadata(String etag, String lastModified, String contentHash, Long simhash, Integer duplicateOf) {
+
+    public PageMetadata withDuplicateOf(Integer canonicalPageId) {
+        return new PageMetadata(etag, lastModified, contentHash, simhash, canonicalPageId);
+    }
+}
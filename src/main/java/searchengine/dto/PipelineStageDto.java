@@ -0,0 +1,14 @@
+package searchengine.dto;
+
+import lombok.Data;
+
+@Data
+public class PipelineStageDto {
+    private String stage;
+    private int threads;
+    private int queued;
+    private int capacity;
+    private int active;
+    private long completed;
+    private long bytesPerItem;
+}
@@ -0,0 +1,18 @@
+package searchengine.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class SiteCrawlDto {
+    private String site;
+    private boolean paused;
+    private int workers;
+    private int active;
+    private int queued;
+    private int visited;
+    private Map<String, Integer> hostQueues;
+    private List<InFlightFetchDto> inFlight;
+}
@@ -0,0 +1,21 @@
+package searchengine.exceptions;
+
+import java.io.IOException;
+
+/**
+ * Запрос к хосту не отправлен: цепь размыкателя разомкнута.
+ * Если {@code permanent}, хост признан недоступным до конца обхода и повторять запрос бессмысленно.
+ */
+public class HostUnavailableException extends IOException {
+
+    private final boolean permanent;
+
+    public HostUnavailableException(String host, boolean permanent) {
+        super((permanent ? "Хост недоступен до конца обхода: " : "Хост временно недоступен: ") + host);
+        this.permanent = permanent;
+    }
+
+    public boolean isPermanent() {
+        return permanent;
+    }
+}
@@ -0,0 +1,31 @@
+package searchengine.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Адрес из очереди обхода, который уже допущен во frontier, но ещё не обработан.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "crawl_checkpoint")
+public class CrawlCheckpointEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "site_id", nullable = false)
+    private SiteEntity site;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String url;
+
+    @Column(name = "url_hash", nullable = false)
+    private long urlHash;
+
+    @Column(nullable = false)
+    private int depth;
+}
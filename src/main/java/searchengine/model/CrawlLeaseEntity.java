@@ -0,0 +1,39 @@
+package searchengine.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Аренда обхода сайта в кластере индексаторов. Свободна, пока owner пуст; занятая аренда
+ * продлевается heartbeat-ом владельца, а просроченная (expires_at в прошлом) достаётся другому узлу.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "crawl_lease")
+public class CrawlLeaseEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "site_url", nullable = false, unique = true)
+    private String siteUrl;
+
+    @Column(name = "owner", length = 128)
+    private String owner;
+
+    @Column(nullable = false)
+    private boolean resume;
+
+    @Column(name = "created_at", nullable = false, columnDefinition = "DATETIME")
+    private LocalDateTime createdAt;
+
+    @Column(name = "heartbeat_at", columnDefinition = "DATETIME")
+    private LocalDateTime heartbeatAt;
+
+    @Column(name = "expires_at", columnDefinition = "DATETIME")
+    private LocalDateTime expiresAt;
+}
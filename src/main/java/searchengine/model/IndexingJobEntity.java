@@ -0,0 +1,47 @@
+package searchengine.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Задание индексации: полный обход, обход одного сайта или пачка страниц.
+ * target — адрес сайта или адреса страниц через перевод строки.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "indexing_job")
+public class IndexingJobEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private JobType type;
+
+    @Column(columnDefinition = "MEDIUMTEXT")
+    private String target;
+
+    @Column(nullable = false)
+    private int priority;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private JobStatus status;
+
+    @Column(columnDefinition = "TEXT")
+    private String error;
+
+    @Column(name = "created_at", nullable = false, columnDefinition = "DATETIME")
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at", columnDefinition = "DATETIME")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at", columnDefinition = "DATETIME")
+    private LocalDateTime finishedAt;
+}
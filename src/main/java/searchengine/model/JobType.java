@@ -0,0 +1,20 @@
+package searchengine.model;
+
+/**
+ * Вид задания индексации и его приоритет по умолчанию: чем больше, тем раньше задание берётся из очереди.
+ */
+public enum JobType {
+    FULL(0),
+    SITE(5),
+    PAGES(10);
+
+    private final int defaultPriority;
+
+    JobType(int defaultPriority) {
+        this.defaultPriority = defaultPriority;
+    }
+
+    public int defaultPriority() {
+        return defaultPriority;
+    }
+}
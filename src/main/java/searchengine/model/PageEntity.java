@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.time.LocalDateTime;
+
 @Entity
 @Getter
 @Setter
@@ -27,4 +29,46 @@ public class PageEntity {
 
     @Column(nullable = false, columnDefinition = "MEDIUMTEXT")
     private String content;
+
+    @Column(name = "etag", columnDefinition = "VARCHAR(255)")
+    private String etag;
+
+    @Column(name = "last_modified", columnDefinition = "VARCHAR(64)")
+    private String lastModified;
+
+    @Column(name = "content_hash", columnDefinition = "CHAR(64)")
+    private String contentHash;
+
+    @Column(name = "simhash")
+    private Long simhash;
+
+    @Column(name = "duplicate_of")
+    private Integer duplicateOf;
+
+    @Column(name = "title", columnDefinition = "TEXT")
+    private String title;
+
+    @Column(name = "links", columnDefinition = "MEDIUMTEXT")
+    private String links;
+
+    /**
+     * Исходящие ссылки на страницы того же сайта: id страниц, по 4 байта (см. LinkGraph.encode).
+     */
+    @Column(name = "out_links", columnDefinition = "MEDIUMBLOB")
+    private byte[] outLinks;
+
+    /**
+     * PageRank страницы внутри сайта, умноженный на число страниц: 1.0 — средняя страница.
+     */
+    @Column(name = "static_rank")
+    private Float staticRank;
+
+    @Column(name = "next_visit_at", columnDefinition = "DATETIME")
+    private LocalDateTime nextVisitAt;
+
+    /**
+     * Текущий интервал перепроверки в секундах; null, пока страница не попала в расписание.
+     */
+    @Column(name = "revisit_interval")
+    private Integer revisitInterval;
 }
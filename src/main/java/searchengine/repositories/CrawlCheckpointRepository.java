@@ -0,0 +1,32 @@
+package searchengine.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import searchengine.model.CrawlCheckpointEntity;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CrawlCheckpointRepository extends JpaRepository<CrawlCheckpointEntity, Integer> {
+
+    @Query("SELECT c FROM CrawlCheckpointEntity c WHERE c.site.id = :siteId")
+    List<CrawlCheckpointEntity> findAllBySiteId(@Param("siteId") int siteId);
+
+    @Query("SELECT COUNT(c) > 0 FROM CrawlCheckpointEntity c WHERE c.site.id = :siteId")
+    boolean existsBySiteId(@Param("siteId") int siteId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CrawlCheckpointEntity c WHERE c.site.id = :siteId AND c.urlHash IN :hashes")
+    void deleteBySiteIdAndUrlHashIn(@Param("siteId") int siteId, @Param("hashes") Collection<Long> hashes);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CrawlCheckpointEntity c WHERE c.site.id = :siteId")
+    void deleteAllBySiteId(@Param("siteId") int siteId);
+}
@@ -0,0 +1,104 @@
+package searchengine.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import searchengine.model.CrawlLeaseEntity;
+
+import java.util.List;
+
+/**
+ * Аренды обхода. Время берётся из часов MySQL (NOW()), поэтому расхождение часов узлов не влияет на истечение.
+ */
+@Repository
+public interface CrawlLeaseRepository extends JpaRepository<CrawlLeaseEntity, Integer> {
+
+    /**
+     * Выставляет сайт на обход. Существующая аренда не меняется.
+     *
+     * @return 1, если аренда создана, 0 — если сайт уже выставлен или обходится
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+      INSERT IGNORE INTO crawl_lease (site_url, resume, created_at)
+      VALUES (:siteUrl, :resume, NOW())
+      """, nativeQuery = true)
+    int offer(@Param("siteUrl") String siteUrl, @Param("resume") boolean resume);
+
+    @Query(value = """
+      SELECT * FROM crawl_lease
+      WHERE owner IS NULL OR expires_at < NOW()
+      ORDER BY created_at
+      """, nativeQuery = true)
+    List<CrawlLeaseEntity> findClaimable();
+
+    /**
+     * Захват свободной или просроченной аренды. Условие повторяется в UPDATE, так что из нескольких узлов,
+     * одновременно увидевших аренду свободной, её получает ровно один.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+      UPDATE crawl_lease
+      SET owner = :owner, heartbeat_at = NOW(), expires_at = TIMESTAMPADD(SECOND, :ttlSeconds, NOW())
+      WHERE site_url = :siteUrl AND (owner IS NULL OR expires_at < NOW())
+      """, nativeQuery = true)
+    int claim(@Param("siteUrl") String siteUrl, @Param("owner") String owner, @Param("ttlSeconds") long ttlSeconds);
+
+    /**
+     * Продление аренды владельцем.
+     *
+     * @return 0, если аренда отозвана или уже перешла к другому узлу
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+      UPDATE crawl_lease
+      SET heartbeat_at = NOW(), expires_at = TIMESTAMPADD(SECOND, :ttlSeconds, NOW())
+      WHERE site_url = :siteUrl AND owner = :owner
+      """, nativeQuery = true)
+    int renew(@Param("siteUrl") String siteUrl, @Param("owner") String owner, @Param("ttlSeconds") long ttlSeconds);
+
+    /**
+     * Возврат аренды без обхода: она снова свободна для любого узла.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+      UPDATE crawl_lease
+      SET owner = NULL, heartbeat_at = NULL, expires_at = NULL
+      WHERE site_url = :siteUrl AND owner = :owner
+      """, nativeQuery = true)
+    int unclaim(@Param("siteUrl") String siteUrl, @Param("owner") String owner);
+
+    /**
+     * Освобождение после завершения обхода: сайт больше не выставлен.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CrawlLeaseEntity l WHERE l.siteUrl = :siteUrl AND l.owner = :owner")
+    int release(@Param("siteUrl") String siteUrl, @Param("owner") String owner);
+
+    /**
+     * Аренды узла сразу становятся просроченными и достаются другим узлам вместе с контрольной точкой.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE crawl_lease SET expires_at = NOW() - INTERVAL 1 SECOND WHERE owner = :owner",
+            nativeQuery = true)
+    int expireAllByOwner(@Param("owner") String owner);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CrawlLeaseEntity l WHERE l.siteUrl = :siteUrl")
+    int revoke(@Param("siteUrl") String siteUrl);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CrawlLeaseEntity l")
+    int revokeAll();
+}
@@ -0,0 +1,51 @@
+package searchengine.repositories;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import searchengine.model.IndexingJobEntity;
+import searchengine.model.JobStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface IndexingJobRepository extends JpaRepository<IndexingJobEntity, Integer> {
+
+    List<IndexingJobEntity> findByStatusOrderByPriorityDescIdAsc(JobStatus status);
+
+    List<IndexingJobEntity> findAllByOrderByIdDesc(Pageable pageable);
+
+    List<IndexingJobEntity> findByStatusOrderByIdDesc(JobStatus status, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE IndexingJobEntity j SET j.status = :status, j.startedAt = :at WHERE j.id = :id")
+    void markStarted(@Param("id") int id, @Param("status") JobStatus status, @Param("at") LocalDateTime at);
+
+    @Modifying
+    @Transactional
+    @Query("""
+      UPDATE IndexingJobEntity j SET j.status = :status, j.error = :error, j.finishedAt = :at
+      WHERE j.id = :id
+      """)
+    void markFinished(@Param("id") int id, @Param("status") JobStatus status, @Param("error") String error,
+                      @Param("at") LocalDateTime at);
+
+    /**
+     * Задания, выполнявшиеся при остановке процесса, завершаются с ошибкой: обход сайтов после
+     * перезапуска продолжается через /api/resumeIndexing, а не повтором задания.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+      UPDATE IndexingJobEntity j SET j.status = searchengine.model.JobStatus.FAILED, j.error = :error,
+             j.finishedAt = :at
+      WHERE j.status = searchengine.model.JobStatus.RUNNING
+      """)
+    int failRunning(@Param("error") String error, @Param("at") LocalDateTime at);
+}
@@ -8,13 +8,19 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import searchengine.model.LemmaEntity;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface LemmaRepository extends JpaRepository<LemmaEntity, Integer> {
+public interface LemmaRepository extends JpaRepository<LemmaEntity, Integer>, LemmaRepositoryCustom {
 
     Optional<LemmaEntity> findBySiteIdAndLemma(Integer siteId, String lemma);
 
+    @Query("SELECT l FROM LemmaEntity l WHERE l.site.id = :siteId AND l.lemma IN :lemmas")
+    List<LemmaEntity> findAllBySiteIdAndLemmaIn(@Param("siteId") int siteId,
+                                                @Param("lemmas") Collection<String> lemmas);
+
     @Modifying
     @Transactional
     @Query("UPDATE LemmaEntity l SET l.frequency = l.frequency - 1 WHERE l.site.id = :siteId AND l.lemma = :lemma")
@@ -0,0 +1,15 @@
+package searchengine.repositories;
+
+import java.util.List;
+
+public interface LemmaRepositoryCustom {
+
+    /**
+     * Добавляет леммы страницы или увеличивает их частоту одним многострочным INSERT ... ON DUPLICATE KEY UPDATE
+     * на каждые {@value LemmaRepositoryCustomImpl#BATCH_SIZE} лемм.
+     *
+     * @param lemmas леммы без повторов, отсортированные: все потоки блокируют строки lemma в одном
+     *               и том же порядке, поэтому параллельная запись страниц одного сайта не даёт взаимных блокировок
+     */
+    void upsertLemmas(int siteId, List<String> lemmas);
+}
@@ -0,0 +1,36 @@
+package searchengine.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public class LemmaRepositoryCustomImpl implements LemmaRepositoryCustom {
+
+    static final int BATCH_SIZE = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public void upsertLemmas(int siteId, List<String> lemmas) {
+        for (int from = 0; from < lemmas.size(); from += BATCH_SIZE) {
+            List<String> batch = lemmas.subList(from, Math.min(from + BATCH_SIZE, lemmas.size()));
+            StringBuilder sql = new StringBuilder("INSERT INTO lemma (lemma, site_id, frequency) VALUES ");
+            for (int i = 0; i < batch.size(); i++) {
+                sql.append(i == 0 ? "" : ", ").append("(?").append(i + 2).append(", ?1, 1)");
+            }
+            sql.append(" ON DUPLICATE KEY UPDATE frequency = frequency + 1");
+
+            Query query = entityManager.createNativeQuery(sql.toString());
+            query.setParameter(1, siteId);
+            for (int i = 0; i < batch.size(); i++) {
+                query.setParameter(i + 2, batch.get(i));
+            }
+            query.executeUpdate();
+        }
+    }
+}
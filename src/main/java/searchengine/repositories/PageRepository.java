@@ -9,27 +9,126 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import searchengine.model.PageEntity;
+import searchengine.model.Status;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface PageRepository extends JpaRepository<PageEntity,Integer> {
+public interface PageRepository extends JpaRepository<PageEntity,Integer>, PageRepositoryCustom {
     @Query("SELECT p FROM PageEntity p WHERE p.path = :path AND p.site.id = :siteId")
     Optional<PageEntity> findByPathAndSiteId(String path, int siteId);
 
     @Modifying
     @Transactional
     @Query(value = """
-      INSERT INTO page (path, site_id, code, content)
-      VALUES (:path, :siteId, :code, :content)
+      INSERT INTO page (path, site_id, code, content, title, links, etag, last_modified, content_hash, simhash,
+                        duplicate_of)
+      VALUES (:path, :siteId, :code, :content, :title, :links, :etag, :lastModified, :contentHash, :simhash,
+              :duplicateOf)
       ON DUPLICATE KEY UPDATE
         code = VALUES(code),
-        content = VALUES(content)
+        content = VALUES(content),
+        title = VALUES(title),
+        links = VALUES(links),
+        etag = VALUES(etag),
+        last_modified = VALUES(last_modified),
+        content_hash = VALUES(content_hash),
+        simhash = VALUES(simhash),
+        duplicate_of = VALUES(duplicate_of)
       """, nativeQuery = true)
     void upsertPage(@Param("path") String path,
                     @Param("siteId") Integer siteId,
                     @Param("code") int code,
-                    @Param("content") String content);
+                    @Param("content") byte[] content,
+                    @Param("title") String title,
+                    @Param("links") byte[] links,
+                    @Param("etag") String etag,
+                    @Param("lastModified") String lastModified,
+                    @Param("contentHash") String contentHash,
+                    @Param("simhash") Long simhash,
+                    @Param("duplicateOf") Integer duplicateOf);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE PageEntity p SET p.etag = :etag, p.lastModified = :lastModified WHERE p.id = :id")
+    void updateValidators(@Param("id") int id,
+                          @Param("etag") String etag,
+                          @Param("lastModified") String lastModified);
+
+    @Query("""
+      SELECT p.id, p.simhash
+      FROM PageEntity p
+      WHERE p.site.id = :siteId AND p.simhash IS NOT NULL AND p.duplicateOf IS NULL
+      """)
+    List<Object[]> findFingerprintsBySiteId(@Param("siteId") int siteId);
+
+    @Query("SELECT p.path, p.lastModified FROM PageEntity p WHERE p.site.id = :siteId AND p.lastModified IS NOT NULL")
+    List<Object[]> findLastModifiedBySiteId(@Param("siteId") int siteId);
+
+    /**
+     * Ставит в расписание страницы, сохранённые после прошлой выборки: первый визит через
+     * from + случайные 0..spreadSeconds, чтобы страницы одного обхода не пришли на перепроверку разом.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+      UPDATE page
+      SET next_visit_at = TIMESTAMPADD(SECOND, FLOOR(RAND() * :spreadSeconds), :from),
+          revisit_interval = :intervalSeconds
+      WHERE next_visit_at IS NULL
+      """, nativeQuery = true)
+    int scheduleUnvisited(@Param("from") LocalDateTime from,
+                          @Param("spreadSeconds") long spreadSeconds,
+                          @Param("intervalSeconds") long intervalSeconds);
+
+    @Query("""
+      SELECT p
+      FROM PageEntity p
+      JOIN FETCH p.site s
+      WHERE p.nextVisitAt <= :now AND s.status <> :excluded
+      ORDER BY p.nextVisitAt
+      """)
+    List<PageEntity> findDueForRevisit(@Param("now") LocalDateTime now,
+                                       @Param("excluded") Status excluded,
+                                       Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE PageEntity p SET p.nextVisitAt = :nextVisitAt, p.revisitInterval = :intervalSeconds WHERE p.id = :id")
+    void scheduleVisit(@Param("id") int id,
+                       @Param("nextVisitAt") LocalDateTime nextVisitAt,
+                       @Param("intervalSeconds") int intervalSeconds);
+
+    /**
+     * Вершины графа ссылок: id, path и id канонической страницы у почти-дубликатов, без текста и ссылок.
+     */
+    @Query("SELECT p.id, p.path, p.duplicateOf FROM PageEntity p WHERE p.site.id = :siteId")
+    List<Object[]> findLinkVerticesBySiteId(@Param("siteId") int siteId);
+
+    /**
+     * Ссылки канонических страниц сайта порциями по возрастанию id, начиная после afterId.
+     */
+    @Query("""
+      SELECT p.id, p.links FROM PageEntity p
+      WHERE p.site.id = :siteId AND p.duplicateOf IS NULL AND p.id > :afterId
+      ORDER BY p.id
+      """)
+    List<Object[]> findLinksBySiteIdAfter(@Param("siteId") int siteId,
+                                          @Param("afterId") int afterId,
+                                          Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("""
+      UPDATE PageEntity p SET p.outLinks = NULL, p.staticRank = NULL
+      WHERE p.site.id = :siteId AND p.duplicateOf IS NOT NULL
+      """)
+    int clearDuplicateLinkGraph(@Param("siteId") int siteId);
+
+    @Query("SELECT p.path FROM PageEntity p WHERE p.site.id = :siteId")
+    List<String> findPathsBySiteId(@Param("siteId") int siteId);
 
     int countAllBySiteId(Integer id);
     @Query("""
@@ -37,6 +136,7 @@ public interface PageRepository extends JpaRepository<PageEntity,Integer> {
       FROM PageEntity p
       JOIN SearchIndexEntity s ON s.page = p
       WHERE s.lemma.id = :lemmaId
+      ORDER BY p.staticRank DESC, p.id
   """)
     Page<PageEntity> findAllByLemmaId(
             @Param("lemmaId") Integer lemmaId,
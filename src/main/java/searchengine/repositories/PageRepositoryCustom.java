@@ -0,0 +1,17 @@
+package searchengine.repositories;
+
+import java.util.List;
+
+public interface PageRepositoryCustom {
+
+    /**
+     * Граф ссылок и статический ранг одной страницы.
+     */
+    record LinkGraphRow(int pageId, byte[] outLinks, float staticRank) {}
+
+    /**
+     * Записывает out_links и static_rank одним многострочным UPDATE на каждые
+     * {@value PageRepositoryCustomImpl#BATCH_SIZE} страниц.
+     */
+    void updateLinkGraphs(List<LinkGraphRow> rows);
+}
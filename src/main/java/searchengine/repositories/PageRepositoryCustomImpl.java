@@ -0,0 +1,42 @@
+package searchengine.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public class PageRepositoryCustomImpl implements PageRepositoryCustom {
+
+    static final int BATCH_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public void updateLinkGraphs(List<LinkGraphRow> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            List<LinkGraphRow> batch = rows.subList(from, Math.min(from + BATCH_SIZE, rows.size()));
+            StringBuilder sql = new StringBuilder("UPDATE page p JOIN (");
+            for (int i = 0; i < batch.size(); i++) {
+                int base = i * 3;
+                sql.append(i == 0
+                        ? "SELECT ?" + (base + 1) + " AS id, ?" + (base + 2) + " AS out_links, ?" + (base + 3)
+                          + " AS static_rank"
+                        : " UNION ALL SELECT ?" + (base + 1) + ", ?" + (base + 2) + ", ?" + (base + 3));
+            }
+            sql.append(") v ON p.id = v.id SET p.out_links = v.out_links, p.static_rank = v.static_rank");
+
+            Query query = entityManager.createNativeQuery(sql.toString());
+            for (int i = 0; i < batch.size(); i++) {
+                LinkGraphRow row = batch.get(i);
+                query.setParameter(i * 3 + 1, row.pageId());
+                query.setParameter(i * 3 + 2, row.outLinks());
+                query.setParameter(i * 3 + 3, row.staticRank());
+            }
+            query.executeUpdate();
+        }
+    }
+}
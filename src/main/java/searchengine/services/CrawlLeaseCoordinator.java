@@ -0,0 +1,126 @@
+package searchengine.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import searchengine.config.CrawlerSettings;
+import searchengine.model.CrawlLeaseEntity;
+import searchengine.repositories.CrawlLeaseRepository;
+
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Узел кластера индексаторов. Разбирает выставленные и просроченные аренды сайтов, обходит их локально
+ * и продлевает свои аренды. Если продлить не удалось (аренду отозвали или перехватил другой узел после
+ * паузы этого), локальный обход сайта останавливается. При штатной остановке узла его аренды
+ * сразу становятся просроченными, и другие узлы продолжают сайты с контрольной точки.
+ */
+@Slf4j
+@Service
+public class CrawlLeaseCoordinator {
+
+    private final CrawlLeaseRepository leaseRepository;
+    private final SiteIndexingServiceImpl indexingService;
+    private final CrawlerSettings.Cluster settings;
+    @Getter
+    private final String nodeId;
+    private final Set<String> owned = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "crawl-lease-coordinator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public CrawlLeaseCoordinator(CrawlLeaseRepository leaseRepository, SiteIndexingServiceImpl indexingService,
+                                 CrawlerSettings crawlerSettings) {
+        this.leaseRepository = leaseRepository;
+        this.indexingService = indexingService;
+        this.settings = crawlerSettings.getCluster();
+        this.nodeId = settings.getNodeId().isBlank()
+                ? ManagementFactory.getRuntimeMXBean().getName()
+                : settings.getNodeId();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        long heartbeat = settings.getHeartbeatInterval().toMillis();
+        long poll = settings.getPollInterval().toMillis();
+        timer.scheduleWithFixedDelay(this::renewLeases, heartbeat, heartbeat, TimeUnit.MILLISECONDS);
+        timer.scheduleWithFixedDelay(this::claimLeases, 0, poll, TimeUnit.MILLISECONDS);
+        log.info("🤝 Узел кластера {}: аренда {}, продление каждые {}, до {} сайтов", nodeId,
+                settings.getLeaseTtl(), settings.getHeartbeatInterval(), settings.getMaxSites());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+        if (settings.isEnabled() && !owned.isEmpty()) {
+            int expired = leaseRepository.expireAllByOwner(nodeId);
+            log.info("🤝 Узел {} останавливается, аренд передано другим узлам: {}", nodeId, expired);
+        }
+    }
+
+    void claimLeases() {
+        try {
+            for (CrawlLeaseEntity lease : leaseRepository.findClaimable()) {
+                if (owned.size() >= settings.getMaxSites()) {
+                    return;
+                }
+                String site = lease.getSiteUrl();
+                if (owned.contains(site) || !indexingService.isConfigured(site)
+                        || leaseRepository.claim(site, nodeId, ttlSeconds()) == 0) {
+                    continue;
+                }
+                boolean takeover = lease.getOwner() != null;
+                if (takeover) {
+                    log.warn("🤝 Узел {} перехватил просроченную аренду {} у {}", nodeId, site, lease.getOwner());
+                } else {
+                    log.info("🤝 Узел {} получил аренду {}", nodeId, site);
+                }
+                owned.add(site);
+                if (!indexingService.startLeasedSite(site, lease.isResume() || takeover, () -> finished(site))) {
+                    log.warn("⚠️ Сайт {} уже обходится на узле {} вне аренды, аренда возвращена", site, nodeId);
+                    owned.remove(site);
+                    leaseRepository.unclaim(site, nodeId);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("❌ Ошибка захвата аренд узлом {}: {}", nodeId, e.getMessage(), e);
+        }
+    }
+
+    void renewLeases() {
+        for (String site : owned) {
+            try {
+                if (leaseRepository.renew(site, nodeId, ttlSeconds()) == 0 && owned.remove(site)) {
+                    log.warn("⚠️ Аренда {} отозвана или перешла к другому узлу, обход на {} останавливается",
+                            site, nodeId);
+                    indexingService.stopLocalCrawl(site, "Аренда обхода сайта потеряна узлом " + nodeId);
+                }
+            } catch (RuntimeException e) {
+                log.error("❌ Не удалось продлить аренду {}: {}", site, e.getMessage());
+            }
+        }
+    }
+
+    private void finished(String site) {
+        if (owned.remove(site)) {
+            leaseRepository.release(site, nodeId);
+            log.info("🤝 Обход {} завершён, аренда освобождена узлом {}", site, nodeId);
+        }
+    }
+
+    private long ttlSeconds() {
+        return settings.getLeaseTtl().toSeconds();
+    }
+}
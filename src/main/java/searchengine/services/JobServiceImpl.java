@@ -0,0 +1,466 @@
+package searchengine.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import searchengine.config.CrawlerSettings;
+import searchengine.config.Site;
+import searchengine.config.SitesList;
+import searchengine.dto.IndexResponse;
+import searchengine.dto.JobDto;
+import searchengine.dto.JobResponse;
+import searchengine.dto.JobStatsDto;
+import searchengine.model.IndexingJobEntity;
+import searchengine.model.JobStatus;
+import searchengine.model.JobType;
+import searchengine.model.SiteEntity;
+import searchengine.model.Status;
+import searchengine.repositories.IndexingJobRepository;
+import searchengine.repositories.SiteRepository;
+import searchengine.services.interfaces.JobService;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+import static searchengine.utils.UrlUtils.normalizeBaseUrl;
+
+/**
+ * Задания индексации. Задания хранятся в таблице indexing_job и выполняются ограниченным пулом потоков
+ * в порядке приоритета, а при равном приоритете — в порядке поступления. Задание, которому нужен уже
+ * идущий обход, не отклоняется, а ждёт его окончания; запуск обходов выполняется по одному,
+ * поэтому два задания не могут начать обход одного сайта одновременно.
+ */
+@Slf4j
+@Service
+public class JobServiceImpl implements JobService {
+
+    private final IndexingJobRepository jobRepository;
+    private final SiteRepository siteRepository;
+    private final SiteIndexingServiceImpl indexingService;
+    private final SitesList sitesList;
+    private final CrawlerSettings crawlerSettings;
+    private final CrawlerSettings.Jobs settings;
+    private final ThreadPoolExecutor executor;
+    private final Map<Integer, JobTask> tasks = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Object launchLock = new Object();
+
+    private final long startedAt = System.nanoTime();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder done = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder runNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong maxRunNanos = new AtomicLong();
+
+    public JobServiceImpl(IndexingJobRepository jobRepository, SiteRepository siteRepository,
+                          SiteIndexingServiceImpl indexingService, SitesList sitesList,
+                          CrawlerSettings crawlerSettings) {
+        this.jobRepository = jobRepository;
+        this.siteRepository = siteRepository;
+        this.indexingService = indexingService;
+        this.sitesList = sitesList;
+        this.crawlerSettings = crawlerSettings;
+        this.settings = crawlerSettings.getJobs();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(settings.getWorkers(), settings.getWorkers(),
+                0, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "indexing-job-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Восстанавливает очередь после перезапуска: ожидавшие задания снова ставятся в очередь.
+     */
+    @PostConstruct
+    public void restore() {
+        int interrupted = jobRepository.failRunning("Задание прервано перезапуском индексатора", LocalDateTime.now());
+        List<IndexingJobEntity> queued = jobRepository.findByStatusOrderByPriorityDescIdAsc(JobStatus.QUEUED);
+        queued.forEach(this::enqueue);
+        if (interrupted > 0 || !queued.isEmpty()) {
+            log.info("📋 Очередь заданий восстановлена: ожидают {}, прервано перезапуском {}",
+                    queued.size(), interrupted);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public JobResponse submit(String type, List<String> urls, Integer priority) {
+        JobType jobType = parseType(type);
+        if (jobType == null) {
+            return errorResponse("Неизвестный тип задания: " + type + ", допустимы FULL, SITE, PAGES");
+        }
+        List<String> targets = urls == null ? List.of() : urls.stream().filter(url -> !url.isBlank()).toList();
+        String invalid = validate(jobType, targets);
+        if (invalid != null) {
+            return errorResponse(invalid);
+        }
+        if (executor.getQueue().size() >= settings.getQueueCapacity()) {
+            return errorResponse("Очередь заданий заполнена: " + settings.getQueueCapacity());
+        }
+
+        IndexingJobEntity job = new IndexingJobEntity();
+        job.setType(jobType);
+        job.setTarget(targets.isEmpty() ? null : String.join("\n", targets));
+        job.setPriority(priority == null ? jobType.defaultPriority() : priority);
+        job.setStatus(JobStatus.QUEUED);
+        job.setCreatedAt(LocalDateTime.now());
+        job = jobRepository.save(job);
+        submitted.increment();
+        enqueue(job);
+        log.info("📋 Задание {} {} поставлено в очередь, приоритет {}", job.getId(), jobType, job.getPriority());
+
+        JobResponse response = new JobResponse();
+        response.setResult(true);
+        response.setJob(toDto(job));
+        return response;
+    }
+
+    @Override
+    public JobResponse getJob(int id) {
+        return jobRepository.findById(id)
+                .map(job -> {
+                    JobResponse response = new JobResponse();
+                    response.setResult(true);
+                    response.setJob(toDto(job));
+                    return response;
+                })
+                .orElseGet(() -> errorResponse("Задание не найдено: " + id));
+    }
+
+    @Override
+    public List<JobDto> getJobs(String status) {
+        PageRequest page = PageRequest.of(0, settings.getHistorySize());
+        JobStatus filter = status == null || status.isBlank() ? null : parseStatus(status);
+        List<IndexingJobEntity> jobs = filter == null
+                ? jobRepository.findAllByOrderByIdDesc(page)
+                : jobRepository.findByStatusOrderByIdDesc(filter, page);
+        return jobs.stream().map(this::toDto).toList();
+    }
+
+    /**
+     * Отменяет задание. Ожидающее задание снимается с очереди; у выполняющегося останавливается
+     * запущенный им обход, а пачка страниц прерывается перед следующей страницей.
+     */
+    @Override
+    public IndexResponse cancel(int id) {
+        JobTask task = tasks.get(id);
+        if (task == null) {
+            return indexResponse(jobRepository.existsById(id)
+                    ? "Задание уже завершено: " + id
+                    : "Задание не найдено: " + id);
+        }
+        if (executor.remove(task)) {
+            tasks.remove(id);
+            jobRepository.markFinished(id, JobStatus.CANCELLED, "Задание отменено до запуска", LocalDateTime.now());
+            cancelled.increment();
+            log.info("🚫 Задание {} снято с очереди", id);
+            return indexResponse(null);
+        }
+        task.cancel();
+        log.info("🚫 Задание {} отменяется", id);
+        return indexResponse(null);
+    }
+
+    @Override
+    public JobStatsDto getStats() {
+        JobStatsDto stats = new JobStatsDto();
+        stats.setWorkers(settings.getWorkers());
+        stats.setQueued(executor.getQueue().size());
+        stats.setRunning(executor.getActiveCount());
+        stats.setSubmitted(submitted.sum());
+        stats.setDone(done.sum());
+        stats.setFailed(failed.sum());
+        stats.setCancelled(cancelled.sum());
+        double hours = (System.nanoTime() - startedAt) / 3_600_000_000_000.0;
+        stats.setThroughputPerHour(hours > 0 ? (done.sum() + failed.sum()) / hours : 0);
+        long count = Math.max(1, executed.sum());
+        stats.setAvgWaitMs(TimeUnit.NANOSECONDS.toMillis(waitNanos.sum() / count));
+        stats.setMaxWaitMs(TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()));
+        stats.setAvgRunMs(TimeUnit.NANOSECONDS.toMillis(runNanos.sum() / count));
+        stats.setMaxRunMs(TimeUnit.NANOSECONDS.toMillis(maxRunNanos.get()));
+        return stats;
+    }
+
+    private void enqueue(IndexingJobEntity job) {
+        JobTask task = new JobTask(job.getId(), job.getType(), splitTarget(job.getTarget()), job.getPriority(),
+                sequence.incrementAndGet());
+        tasks.put(job.getId(), task);
+        executor.execute(task);
+    }
+
+    private String validate(JobType type, List<String> urls) {
+        return switch (type) {
+            case FULL -> urls.isEmpty() ? null : "Полная индексация не принимает адреса";
+            case SITE -> urls.size() != 1
+                    ? "Для индексации сайта нужен ровно один адрес"
+                    : indexingService.isConfigured(urls.get(0)) ? null
+                    : "Сайт не указан в конфигурации: " + urls.get(0);
+            case PAGES -> urls.isEmpty() ? "Не указаны адреса страниц" : null;
+        };
+    }
+
+    /**
+     * Выполняет задание.
+     *
+     * @return текст ошибки или null, если задание выполнено
+     */
+    private String execute(JobTask task) throws Exception {
+        return switch (task.type) {
+            case FULL -> {
+                synchronized (launchLock) {
+                    awaitIdle(indexingService::isAnySiteRunning);
+                    IndexResponse response = indexingService.startFullIndexing();
+                    if (!response.isResult()) yield response.getError();
+                    task.launched();
+                }
+                awaitIdle(indexingService::isAnySiteRunning);
+                yield failedSites(sitesList.getSites().stream().map(Site::getUrl).toList());
+            }
+            case SITE -> {
+                String url = task.urls.get(0);
+                synchronized (launchLock) {
+                    awaitIdle(() -> indexingService.isSiteRunning(url));
+                    IndexResponse response = indexingService.startSiteIndexing(url);
+                    if (!response.isResult()) yield response.getError();
+                    task.launched();
+                }
+                awaitIdle(() -> indexingService.isSiteRunning(url));
+                yield failedSites(task.urls);
+            }
+            case PAGES -> indexPages(task.urls);
+        };
+    }
+
+    private String indexPages(List<String> urls) throws InterruptedException {
+        List<String> errors = new ArrayList<>();
+        for (String url : urls) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException();
+            }
+            try {
+                IndexResponse response = indexingService.indexPage(url);
+                if (!response.isResult()) {
+                    errors.add(url + ": " + response.getError());
+                }
+            } catch (IOException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException(e.getMessage());
+                }
+                log.warn("⚠️ Задание: не удалось загрузить {}: {}", url, e.getMessage());
+                errors.add(url + ": " + e.getMessage());
+            }
+        }
+        return errors.isEmpty() ? null
+                : "Не проиндексировано страниц: " + errors.size() + " из " + urls.size() + "; " + errors.get(0);
+    }
+
+    /**
+     * Ошибки сайтов после обхода. В режиме кластера обход идёт на других узлах, и задание
+     * завершается, как только сайты выставлены на обход.
+     */
+    private String failedSites(List<String> urls) {
+        if (crawlerSettings.getCluster().isEnabled()) {
+            return null;
+        }
+        List<String> errors = new ArrayList<>();
+        for (String url : urls) {
+            SiteEntity site = siteRepository.findByUrl(normalizeBaseUrl(url));
+            if (site != null && site.getStatus() == Status.FAILED) {
+                errors.add(site.getUrl() + ": " + site.getLastError());
+            }
+        }
+        return errors.isEmpty() ? null : String.join("; ", errors);
+    }
+
+    private void awaitIdle(BooleanSupplier busy) throws InterruptedException {
+        long poll = settings.getPollInterval().toMillis();
+        while (busy.getAsBoolean()) {
+            TimeUnit.MILLISECONDS.sleep(poll);
+        }
+    }
+
+    private void finished(JobTask task, JobStatus status, String error, long waited, long ran) {
+        tasks.remove(task.id);
+        jobRepository.markFinished(task.id, status, error, LocalDateTime.now());
+        switch (status) {
+            case DONE -> done.increment();
+            case CANCELLED -> cancelled.increment();
+            default -> failed.increment();
+        }
+        executed.increment();
+        waitNanos.add(waited);
+        runNanos.add(ran);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        maxRunNanos.accumulateAndGet(ran, Math::max);
+        if (status == JobStatus.DONE) {
+            log.info("✅ Задание {} {} выполнено за {} мс", task.id, task.type, TimeUnit.NANOSECONDS.toMillis(ran));
+        } else {
+            log.warn("⚠️ Задание {} {} завершено со статусом {}: {}", task.id, task.type, status, error);
+        }
+    }
+
+    private JobDto toDto(IndexingJobEntity job) {
+        JobDto dto = new JobDto();
+        dto.setId(job.getId());
+        dto.setType(job.getType().name());
+        dto.setUrls(splitTarget(job.getTarget()));
+        dto.setPriority(job.getPriority());
+        dto.setStatus(job.getStatus().name());
+        dto.setError(job.getError());
+        dto.setCreatedAt(job.getCreatedAt());
+        dto.setStartedAt(job.getStartedAt());
+        dto.setFinishedAt(job.getFinishedAt());
+        return dto;
+    }
+
+    private static List<String> splitTarget(String target) {
+        return target == null || target.isEmpty() ? List.of() : List.of(target.split("\n"));
+    }
+
+    private static JobType parseType(String type) {
+        try {
+            return type == null ? null : JobType.valueOf(type.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static JobStatus parseStatus(String status) {
+        try {
+            return JobStatus.valueOf(status.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static JobResponse errorResponse(String message) {
+        JobResponse response = new JobResponse();
+        response.setResult(false);
+        response.setError(message);
+        return response;
+    }
+
+    private static IndexResponse indexResponse(String error) {
+        IndexResponse response = new IndexResponse();
+        response.setResult(error == null);
+        response.setError(error);
+        return response;
+    }
+
+    /**
+     * Задание в очереди пула: сначала больший приоритет, затем меньший порядковый номер.
+     */
+    private final class JobTask implements Runnable, Comparable<JobTask> {
+        private final int id;
+        private final JobType type;
+        private final List<String> urls;
+        private final int priority;
+        private final long sequence;
+        private final long enqueuedAt = System.nanoTime();
+        private volatile Thread worker;
+        private volatile boolean cancelRequested;
+        private boolean launched;
+
+        private JobTask(int id, JobType type, List<String> urls, int priority, long sequence) {
+            this.id = id;
+            this.type = type;
+            this.urls = urls;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(JobTask other) {
+            int byPriority = Integer.compare(other.priority, priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+
+        @Override
+        public void run() {
+            long runStarted = System.nanoTime();
+            long waited = runStarted - enqueuedAt;
+            worker = Thread.currentThread();
+            JobStatus status;
+            String error;
+            try {
+                jobRepository.markStarted(id, JobStatus.RUNNING, LocalDateTime.now());
+                log.info("▶️ Задание {} {} запущено после {} мс в очереди", id, type,
+                        TimeUnit.NANOSECONDS.toMillis(waited));
+                error = cancelRequested ? null : execute(this);
+                status = error == null ? JobStatus.DONE : JobStatus.FAILED;
+            } catch (InterruptedException e) {
+                status = JobStatus.CANCELLED;
+                error = null;
+            } catch (Exception e) {
+                status = JobStatus.FAILED;
+                error = e.getMessage();
+                log.error("❌ Ошибка задания {}: {}", id, e.getMessage(), e);
+            } finally {
+                worker = null;
+                Thread.interrupted();
+            }
+            if (cancelRequested) {
+                status = JobStatus.CANCELLED;
+                error = "Задание отменено пользователем";
+            }
+            finished(this, status, error, waited, System.nanoTime() - runStarted);
+        }
+
+        /**
+         * Обход запущен этим заданием. Если отмена пришла во время запуска, обход сразу останавливается.
+         */
+        private synchronized void launched() {
+            launched = true;
+            if (cancelRequested) {
+                stopCrawl();
+            }
+        }
+
+        /**
+         * Останавливает только обход, запущенный самим заданием: пока задание ждёт чужой обход,
+         * отмена лишь прерывает ожидание.
+         */
+        private synchronized void cancel() {
+            cancelRequested = true;
+            if (launched) {
+                stopCrawl();
+            }
+            Thread thread = worker;
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+
+        private void stopCrawl() {
+            switch (type) {
+                case FULL -> indexingService.stopFullIndexing();
+                case SITE -> indexingService.stopSiteIndexing(urls.get(0));
+                case PAGES -> { }
+            }
+        }
+    }
+}
@@ -4,6 +4,9 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import searchengine.crawler.EncodedContent;
+import searchengine.crawler.PageContent;
+import searchengine.dto.PageMetadata;
 import searchengine.model.PageEntity;
 import searchengine.model.SiteEntity;
 import searchengine.repositories.PageRepository;
@@ -20,10 +23,20 @@ public class PageServiceImpl implements PageService {
 
     @Override
     @Transactional
-    public PageEntity createOrUpdatePage(SiteEntity site, String path, int statusCode, String html) {
+    public PageEntity createOrUpdatePage(SiteEntity site, String path, int statusCode, PageContent content,
+                                         PageMetadata metadata) {
+        return createOrUpdatePage(site, path, statusCode, EncodedContent.of(content), metadata);
+    }
+
+    @Override
+    @Transactional
+    public PageEntity createOrUpdatePage(SiteEntity site, String path, int statusCode, EncodedContent content,
+                                         PageMetadata metadata) {
         log.info("💾 Запрос на upsert страницы: siteId={}, path='{}', statusCode={}", site.getId(), path, statusCode);
 
-        pageRepository.upsertPage(path, site.getId(), statusCode, html);
+        pageRepository.upsertPage(path, site.getId(), statusCode, content.text(), content.title(), content.links(),
+                metadata.etag(), metadata.lastModified(), metadata.contentHash(),
+                metadata.simhash(), metadata.duplicateOf());
 
         Optional<PageEntity> result = pageRepository.findByPathAndSiteId(path, site.getId());
         if (result.isPresent()) {
@@ -0,0 +1,248 @@
+package searchengine.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import searchengine.config.CrawlerSettings;
+import searchengine.crawler.CrawlBudget;
+import searchengine.crawler.EncodedContent;
+import searchengine.crawler.FetchResult;
+import searchengine.crawler.HostRateLimiter;
+import searchengine.crawler.PageContent;
+import searchengine.crawler.RevisitSchedule;
+import searchengine.crawler.SimHashIndex;
+import searchengine.dto.PageMetadata;
+import searchengine.model.PageEntity;
+import searchengine.model.SiteEntity;
+import searchengine.model.Status;
+import searchengine.repositories.PageRepository;
+import searchengine.services.interfaces.PageService;
+import searchengine.utils.ContentHash;
+import searchengine.utils.SimHash;
+import searchengine.utils.UrlCanonicalizer;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static searchengine.utils.UrlUtils.hostOf;
+
+/**
+ * Непрерывная перепроверка проиндексированных страниц между полными обходами.
+ * У каждой страницы своё время следующего визита: интервал сокращается, когда страница изменилась,
+ * и растёт, когда нет. Страницы перепроверяются по одной в порядке срока, с условными запросами
+ * и не быстрее заданной полосы; страницы сайта, который сейчас обходится целиком, пропускаются.
+ * Изменившаяся страница проходит ту же проверку на почти-дубликат, что и при обходе.
+ */
+@Slf4j
+@Service
+public class RecrawlScheduler {
+
+    /**
+     * Условная стоимость запроса без тела (304, неизменённая страница): заголовки запроса и ответа.
+     */
+    private static final long REQUEST_OVERHEAD_BYTES = 1024;
+
+    private final PageRepository pageRepository;
+    private final PageService pageService;
+    private final SiteIndexingServiceImpl indexingService;
+    private final HostRateLimiter rateLimiter;
+    private final CrawlBudget budget;
+    private final CrawlerSettings.Recrawl settings;
+    private final RevisitSchedule schedule;
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "recrawl-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RecrawlScheduler(PageRepository pageRepository, PageService pageService,
+                            SiteIndexingServiceImpl indexingService, HostRateLimiter rateLimiter,
+                            CrawlBudget budget, CrawlerSettings crawlerSettings) {
+        this.pageRepository = pageRepository;
+        this.pageService = pageService;
+        this.indexingService = indexingService;
+        this.rateLimiter = rateLimiter;
+        this.budget = budget;
+        this.settings = crawlerSettings.getRecrawl();
+        this.schedule = RevisitSchedule.of(settings);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!settings.isEnabled()) {
+            log.info("🔁 Фоновая перепроверка страниц отключена");
+            return;
+        }
+        long tick = settings.getTick().toMillis();
+        timer.scheduleWithFixedDelay(this::tick, tick, tick, TimeUnit.MILLISECONDS);
+        log.info("🔁 Фоновая перепроверка: каждые {}, до {} страниц, полоса {} байт/с, интервал {}..{}",
+                settings.getTick(), settings.getBatchSize(), settings.getBandwidth().toBytes(),
+                settings.getMinInterval(), settings.getMaxInterval());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    /**
+     * Один проход: ставит в расписание новые страницы и перепроверяет те, чей срок подошёл.
+     */
+    void tick() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            Duration initial = schedule.initial();
+            int scheduled = pageRepository.scheduleUnvisited(now.plus(initial.dividedBy(2)),
+                    initial.dividedBy(2).toSeconds(), initial.toSeconds());
+            if (scheduled > 0) {
+                log.info("🗓️ В расписание перепроверки добавлено страниц: {}", scheduled);
+            }
+
+            List<PageEntity> due = pageRepository.findDueForRevisit(now, Status.INDEXING,
+                    PageRequest.of(0, settings.getBatchSize()));
+            Map<Integer, SimHashIndex> duplicates = new HashMap<>();
+            int changed = 0;
+            int visited = 0;
+            for (PageEntity page : due) {
+                if (Thread.currentThread().isInterrupted()) return;
+                if (indexingService.isCrawling(page.getSite().getUrl())) continue;
+                if (visit(page, duplicates)) changed++;
+                visited++;
+            }
+            if (visited > 0) {
+                log.info("🔁 Перепроверено страниц: {}, изменилось: {}", visited, changed);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("❌ Ошибка фоновой перепроверки: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Перепроверяет страницу, переносит её следующий визит и выдерживает паузу по полосе.
+     * После ошибки загрузки или временного отказа сервера интервал не меняется.
+     *
+     * @return true, если страница изменилась
+     */
+    private boolean visit(PageEntity page, Map<Integer, SimHashIndex> duplicates) throws InterruptedException {
+        long started = System.nanoTime();
+        Duration current = page.getRevisitInterval() == null ? null : Duration.ofSeconds(page.getRevisitInterval());
+        Duration interval = current == null ? schedule.initial() : current;
+        Revisit revisit = Revisit.UNCHANGED;
+        try {
+            revisit = refresh(page, duplicates);
+            interval = schedule.next(current, revisit.changed());
+        } catch (SocketTimeoutException e) {
+            log.warn("⚠️ Не удалось перепроверить {}: {}", page.getPath(), e.getMessage());
+        } catch (InterruptedIOException e) {
+            throw new InterruptedException(e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            log.warn("⚠️ Не удалось перепроверить {}: {}", page.getPath(), e.getMessage());
+        }
+        pageRepository.scheduleVisit(page.getId(), LocalDateTime.now().plus(interval), (int) interval.toSeconds());
+        log.debug("🗓️ Следующий визит {} через {}", page.getPath(), interval);
+
+        long cost = TimeUnit.SECONDS.toNanos(REQUEST_OVERHEAD_BYTES + revisit.bytes())
+                / Math.max(1, settings.getBandwidth().toBytes());
+        TimeUnit.NANOSECONDS.sleep(cost - (System.nanoTime() - started));
+        return revisit.changed();
+    }
+
+    private Revisit refresh(PageEntity page, Map<Integer, SimHashIndex> duplicates)
+            throws IOException, InterruptedException {
+        SiteEntity site = page.getSite();
+        String path = page.getPath();
+        String url = UrlCanonicalizer.origin(site.getUrl()) + path;
+        awaitHost(url);
+
+        FetchResult response = indexingService.fetchPage(url, page.getEtag(), page.getLastModified());
+        if (response.notModified()) {
+            return Revisit.UNCHANGED;
+        }
+        if (response.isThrottled() || response.statusCode() >= 500) {
+            throw new IOException("HTTP " + response.statusCode() + ", страница оставлена как есть");
+        }
+        if (!response.isSuccess()) {
+            boolean changed = page.getCode() != response.statusCode();
+            indexingService.saveStatusPage(site, path, response.statusCode(), page);
+            return new Revisit(changed, 0);
+        }
+        if (!response.hasContent()) {
+            return Revisit.UNCHANGED;
+        }
+
+        PageContent content = response.content();
+        EncodedContent encoded = EncodedContent.of(content);
+        long bytes = encoded.text().length + encoded.links().length;
+        String hash = ContentHash.of(encoded);
+        if (hash.equals(page.getContentHash()) && page.getCode() == response.statusCode()) {
+            if (!Objects.equals(page.getEtag(), response.etag())
+                    || !Objects.equals(page.getLastModified(), response.lastModified())) {
+                budget.write(() -> {
+                    pageRepository.updateValidators(page.getId(), response.etag(), response.lastModified());
+                    return null;
+                });
+            }
+            return new Revisit(false, bytes);
+        }
+
+        OptionalLong simhash = budget.parse(() -> SimHash.fingerprint(content.text()));
+        PageMetadata metadata = new PageMetadata(response.etag(), response.lastModified(), hash,
+                simhash.isPresent() ? simhash.getAsLong() : null, null);
+        SimHashIndex index = simhash.isPresent()
+                ? duplicates.computeIfAbsent(site.getId(), id -> indexingService.loadSimHashIndex(site))
+                : null;
+        Integer canonicalId = index != null ? index.findNear(simhash.getAsLong()) : null;
+        Set<String> staleLemmas = indexingService.lemmaSetOf(page);
+
+        if (canonicalId != null && !canonicalId.equals(page.getId())) {
+            indexingService.deletePageIndex(page, site.getId(), staleLemmas);
+            budget.write(() -> pageService.createOrUpdatePage(site, path, response.statusCode(),
+                    EncodedContent.of(content.withoutText()), metadata.withDuplicateOf(canonicalId)));
+            log.info("🪞 Страница изменилась и остаётся почти-дубликатом id={}, без индексации: {}", canonicalId, url);
+            return new Revisit(true, bytes);
+        }
+
+        Map<String, Integer> lemmas = indexingService.collectLemmas(content.text(), path);
+        indexingService.deletePageIndex(page, site.getId(), staleLemmas);
+        PageEntity saved = budget.write(() ->
+                pageService.createOrUpdatePage(site, path, response.statusCode(), encoded, metadata));
+        if (index != null) {
+            index.add(simhash.getAsLong(), saved.getId());
+        }
+        if (lemmas != null) {
+            indexingService.saveLemmaAndIndex(saved, lemmas);
+        }
+        log.info("♻️ Страница изменилась и переиндексирована: {}", url);
+        return new Revisit(true, bytes);
+    }
+
+    /**
+     * Вежливость к хосту та же, что при обходе: общий token bucket хоста.
+     */
+    private void awaitHost(String url) throws InterruptedException {
+        long wait;
+        while ((wait = rateLimiter.tryAcquire(hostOf(url))) > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    private record Revisit(boolean changed, long bytes) {
+        static final Revisit UNCHANGED = new Revisit(false, 0);
+    }
+}
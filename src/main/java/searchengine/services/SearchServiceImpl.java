@@ -3,10 +3,10 @@ package searchengine.services;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import searchengine.config.CrawlerSettings;
 import searchengine.config.Site;
 import searchengine.config.SitesList;
 import searchengine.dto.LemmaDto;
@@ -39,6 +39,7 @@ public class SearchServiceImpl implements SearchService {
     private final LemmaRepository lemmaRepository;
     private final SearchIndexRepository indexRepository;
     private final SitesList sites;
+    private final CrawlerSettings crawlerSettings;
     private LemmaFinder lemmaFinder;
 
     @PostConstruct
@@ -114,44 +115,64 @@ public class SearchServiceImpl implements SearchService {
             return new SearchResult(0, Collections.emptyList());
         }
 
-        Page<PageEntity> pageEntities = pageRepository.findAllByLemmaId(firstLemma.getId(), pageable);
-
-        if (pageEntities.isEmpty()) {
+        List<ScoredPage> top = topCandidates(firstLemma, totalCount, pageable);
+        if (top.isEmpty()) {
             return new SearchResult(totalCount, Collections.emptyList());
         }
-
-        double maxRelevance = pageEntities.getContent().stream()
-                .map(p -> indexRepository.absoluteRelevanceByPageId(p.getId()))
-                .filter(Objects::nonNull)
-                .max(Double::compareTo)
-                .orElse(1.0);
+        double maxRelevance = top.get(0).relevance() > 0 ? top.get(0).relevance() : 1.0;
 
         List<SearchDto> data = new ArrayList<>();
-        for (PageEntity page : pageEntities) {
+        for (ScoredPage scored : top.subList((int) Math.min(pageable.getOffset(), top.size()), top.size())) {
+            PageEntity page = scored.page();
             String content = page.getContent();
-            String title = extractTitle(content);
+            String title = page.getTitle() != null ? page.getTitle() : extractTitle(content);
             String snippet = getSnippet(content, filteredLemmas);
 
-            double absRelevance = Optional.ofNullable(indexRepository.absoluteRelevanceByPageId(page.getId()))
-                    .orElse(0.0);
-            double relativeRelevance = absRelevance / maxRelevance;
-
             SearchDto searchDto = new SearchDto();
             searchDto.setSite(siteEntity.getUrl());
             searchDto.setSiteName(siteEntity.getName());
             searchDto.setUri(page.getPath());
             searchDto.setTitle(title);
             searchDto.setSnippet(snippet);
-            searchDto.setRelevance(relativeRelevance);
+            searchDto.setRelevance(scored.relevance() / maxRelevance);
 
             data.add(searchDto);
         }
 
-        data.sort(Comparator.comparing(SearchDto::getRelevance).reversed());
-
         return new SearchResult(totalCount, data);
     }
 
+    private record ScoredPage(PageEntity page, double relevance) {}
+
+    /**
+     * Лучшие offset + limit страниц по релевантности, по убыванию. Кандидаты читаются по убыванию
+     * статического ранга, и оценивается только (offset + limit) × candidate-factor первых из них:
+     * остальные не загружаются и не оцениваются. Без статического ранга оцениваются все кандидаты.
+     */
+    private List<ScoredPage> topCandidates(LemmaEntity lemma, long totalCount, Pageable pageable) {
+        CrawlerSettings.StaticRank staticRank = crawlerSettings.getStaticRank();
+        int wanted = (int) pageable.getOffset() + pageable.getPageSize();
+        long window = staticRank.isEnabled() ? (long) wanted * staticRank.getCandidateFactor() : totalCount;
+        int size = (int) Math.max(wanted, Math.min(window, totalCount));
+
+        PriorityQueue<ScoredPage> top = new PriorityQueue<>(Comparator.comparingDouble(ScoredPage::relevance));
+        int scored = 0;
+        for (PageEntity page : pageRepository.findAllByLemmaId(lemma.getId(), PageRequest.of(0, size))) {
+            scored++;
+            double relevance = Optional.ofNullable(indexRepository.absoluteRelevanceByPageId(page.getId()))
+                    .orElse(0.0);
+            top.add(new ScoredPage(page, relevance));
+            if (top.size() > wanted) {
+                top.poll();
+            }
+        }
+        log.debug("🏁 Оценено кандидатов: {} из {}", scored, totalCount);
+
+        List<ScoredPage> sorted = new ArrayList<>(top);
+        sorted.sort(Comparator.comparingDouble(ScoredPage::relevance).reversed());
+        return sorted;
+    }
+
     private List<LemmaEntity> getFrequencyFilteredLemmas(String query, SiteEntity site) {
         Double maxPercentLemmaOnPageObj = lemmaRepository.findMaxPercentageLemmaOnPagesBySiteId(site.getId());
         double maxPercentLemmaOnPage = (maxPercentLemmaOnPageObj != null) ? maxPercentLemmaOnPageObj : 0.0;
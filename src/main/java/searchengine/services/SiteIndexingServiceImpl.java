@@ -1,35 +1,75 @@
 package searchengine.services;
 
-import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
-import org.jsoup.Connection;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import searchengine.config.Site;
+import searchengine.config.CrawlerSettings;
 import searchengine.config.SitesList;
+import searchengine.crawler.BufferPool;
+import searchengine.crawler.CrawlBudget;
+import searchengine.crawler.CrawlCheckpoint;
+import searchengine.crawler.CrawlExecutor;
+import searchengine.crawler.CrawlExecutorFactory;
+import searchengine.crawler.CrawlFrontier;
+import searchengine.crawler.CrawlPolicy;
+import searchengine.crawler.CrawlRequest;
+import searchengine.crawler.EncodedContent;
+import searchengine.crawler.FetchResult;
+import searchengine.crawler.HostHealth;
+import searchengine.crawler.HostHealthRegistry;
+import searchengine.crawler.HostRateLimiter;
+import searchengine.crawler.IndexingPipeline;
+import searchengine.crawler.OffHeapVisitedSet;
+import searchengine.crawler.PageContent;
+import searchengine.crawler.PageFetcher;
+import searchengine.crawler.RobotsRules;
+import searchengine.crawler.SitemapEntry;
+import searchengine.crawler.SitemapReader;
+import searchengine.crawler.SimHashIndex;
+import searchengine.crawler.StaticRanker;
+import searchengine.crawler.WeightedSlots;
+import searchengine.dto.CrawlerStateDto;
+import searchengine.dto.HostHealthDto;
+import searchengine.dto.InFlightFetchDto;
+import searchengine.dto.PipelineStageDto;
 import searchengine.dto.IndexResponse;
+import searchengine.dto.PageMetadata;
+import searchengine.dto.SiteCrawlDto;
+import searchengine.exceptions.HostUnavailableException;
 import searchengine.exceptions.IndexingInterruptedException;
 import searchengine.model.*;
+import searchengine.repositories.CrawlCheckpointRepository;
+import searchengine.repositories.CrawlLeaseRepository;
 import searchengine.repositories.SearchIndexRepository;
 import searchengine.repositories.LemmaRepository;
 import searchengine.repositories.PageRepository;
 import searchengine.repositories.SiteRepository;
 import searchengine.services.interfaces.PageService;
 import searchengine.services.interfaces.SiteIndexingService;
+import searchengine.utils.ContentHash;
 import searchengine.utils.LemmaFinder;
 import searchengine.utils.ParsingLinksUrl;
+import searchengine.utils.SimHash;
+import searchengine.utils.UrlCanonicalizer;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.MalformedURLException;
-import java.net.URL;
+import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.*;
-import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
+import static searchengine.utils.UrlUtils.hostOf;
 import static searchengine.utils.UrlUtils.normalizeBaseUrl;
+import static searchengine.utils.UrlUtils.pathOf;
 
 @Slf4j
 @Service
@@ -42,26 +82,53 @@ public class SiteIndexingServiceImpl implements SiteIndexingService {
     private final SearchIndexRepository indexRepository;
     private final PageService pageService;
     private final SitesList sitesList;
-    private final List<Thread> threads = new ArrayList<>();
-    @Getter
-    private volatile boolean stopRequested = false;
+    private final HostRateLimiter rateLimiter;
+    private final CrawlExecutorFactory executorFactory;
+    private final PageFetcher pageFetcher;
+    private final CrawlerSettings crawlerSettings;
+    private final SitemapReader sitemapReader;
+    private final CrawlCheckpointRepository checkpointRepository;
+    private final CrawlBudget budget;
+    private final HostHealthRegistry hostHealth;
+    private final IndexingPipeline pipeline;
+    private final BufferPool bufferPool;
+    private final CrawlLeaseRepository leaseRepository;
+    private final Map<String, CrawlFrontier> frontiers = new ConcurrentHashMap<>();
+    private final Map<String, Thread> threads = new ConcurrentHashMap<>();
 
     @Autowired
     public SiteIndexingServiceImpl(PageRepository pageRepository, SiteRepository siteRepository, SitesList sitesList,
-                                   LemmaRepository lemmaRepository, SearchIndexRepository indexRepository, PageService pageService) {
+                                   LemmaRepository lemmaRepository, SearchIndexRepository indexRepository, PageService pageService,
+                                   HostRateLimiter rateLimiter, CrawlExecutorFactory executorFactory,
+                                   PageFetcher pageFetcher, CrawlerSettings crawlerSettings,
+                                   SitemapReader sitemapReader, CrawlCheckpointRepository checkpointRepository,
+                                   CrawlBudget budget, HostHealthRegistry hostHealth,
+                                   IndexingPipeline pipeline, BufferPool bufferPool,
+                                   CrawlLeaseRepository leaseRepository) {
         this.pageRepository = pageRepository;
         this.siteRepository = siteRepository;
         this.lemmaRepository = lemmaRepository;
         this.indexRepository = indexRepository;
         this.sitesList = sitesList;
         this.pageService = pageService;
+        this.rateLimiter = rateLimiter;
+        this.executorFactory = executorFactory;
+        this.pageFetcher = pageFetcher;
+        this.crawlerSettings = crawlerSettings;
+        this.sitemapReader = sitemapReader;
+        this.checkpointRepository = checkpointRepository;
+        this.budget = budget;
+        this.hostHealth = hostHealth;
+        this.pipeline = pipeline;
+        this.bufferPool = bufferPool;
+        this.leaseRepository = leaseRepository;
     }
 
     @Override
     public IndexResponse startFullIndexing() {
         IndexResponse indexResponse = new IndexResponse();
 
-        if (threads.stream().anyMatch(Thread::isAlive)) {
+        if (isAnySiteRunning() || clustered() && leaseRepository.count() > 0) {
             indexResponse.setResult(false);
             indexResponse.setError("Индексация уже запущена");
             log.warn("Попытка запустить индексацию, но она уже активна");
@@ -70,66 +137,377 @@ public class SiteIndexingServiceImpl implements SiteIndexingService {
 
         log.info("▶️ Запуск полной индексации сайтов");
 
-        stopRequested = false;
         threads.clear();
 
         List<Site> siteInfos = sitesList.getSites();
+        if (clustered()) {
+            siteInfos.forEach(siteInfo -> leaseRepository.offer(normalizeBaseUrl(siteInfo.getUrl()), false));
+            log.info("🤝 Сайты выставлены на обход узлам кластера: {}", siteInfos.size());
+            indexResponse.setResult(true);
+            return indexResponse;
+        }
         for (Site siteInfo : siteInfos) {
-            Thread thread = new Thread(() -> {
-                String url = normalizeBaseUrl(siteInfo.getUrl());
-                log.info("🔗 Индексация сайта: {}", url);
+            threads.put(normalizeBaseUrl(siteInfo.getUrl()), new Thread(() -> indexSite(siteInfo, false)));
+        }
 
-                siteRepository.deleteByUrl(url);
+        threads.values().forEach(Thread::start);
 
-                SiteEntity site = new SiteEntity();
-                site.setName(siteInfo.getName());
-                site.setUrl(url);
-                site.setStatus(Status.INDEXING);
-                site.setStatusTime(LocalDateTime.now());
+        indexResponse.setResult(true);
+        return indexResponse;
+    }
 
-                try {
-                    parsingSite(url, site);
-                    site.setStatus(Status.INDEXED);
-                } catch (IndexingInterruptedException e) {
-                    site.setStatus(Status.FAILED);
-                    site.setLastError(e.getMessage());
-                    log.warn("🛑 Индексация остановлена пользователем для сайта {}: {}", url, e.getMessage());
-                } catch (Exception e) {
-                    site.setStatus(Status.FAILED);
-                    site.setLastError("Ошибка при обходе: " + e.getMessage());
-                    log.error("❌ Ошибка индексации для {}: {}", url, e.getMessage(), e);
-                }
+    @Override
+    public IndexResponse resumeIndexing() {
+        if (isAnySiteRunning()) {
+            log.warn("Попытка продолжить индексацию, но она уже активна");
+            return errorResponse("Индексация уже запущена");
+        }
 
-                site.setStatusTime(LocalDateTime.now());
-                siteRepository.save(site);
-            });
+        threads.clear();
 
-            threads.add(thread);
+        int offered = 0;
+        for (Site siteInfo : sitesList.getSites()) {
+            SiteEntity existing = siteRepository.findByUrl(normalizeBaseUrl(siteInfo.getUrl()));
+            if (existing == null || existing.getStatus() == Status.INDEXED) {
+                continue;
+            }
+            if (clustered()) {
+                offered += leaseRepository.offer(existing.getUrl(), true);
+                continue;
+            }
+            boolean resume = checkpointRepository.existsBySiteId(existing.getId());
+            log.info("⏯️ Продолжаем индексацию {} {}", existing.getUrl(),
+                    resume ? "с контрольной точки" : "повторным обходом");
+            threads.put(existing.getUrl(), new Thread(() -> indexSite(siteInfo, resume)));
         }
 
-        threads.forEach(Thread::start);
+        if (offered > 0) {
+            log.info("🤝 Прерванные сайты выставлены на продолжение узлам кластера: {}", offered);
+            return successResponse();
+        }
+        if (threads.isEmpty()) {
+            return errorResponse("Нет прерванной индексации");
+        }
+        threads.values().forEach(Thread::start);
+        return successResponse();
+    }
 
-        indexResponse.setResult(true);
-        return indexResponse;
+    /**
+     * Запускает полный обход одного сайта, не затрагивая остальные.
+     */
+    @Override
+    public IndexResponse startSiteIndexing(String url) {
+        Site siteInfo = configuredSite(url);
+        if (siteInfo == null) {
+            return errorResponse("Сайт не указан в конфигурации: " + url);
+        }
+        String key = normalizeBaseUrl(siteInfo.getUrl());
+        if (isRunning(key)) {
+            return errorResponse("Индексация сайта уже запущена");
+        }
+        if (clustered()) {
+            if (leaseRepository.offer(key, false) == 0) {
+                return errorResponse("Индексация сайта уже запущена");
+            }
+            log.info("🤝 Сайт {} выставлен на обход узлам кластера", key);
+            return successResponse();
+        }
+        log.info("▶️ Запуск индексации сайта {}", key);
+        startSiteThread(key, () -> indexSite(siteInfo, false));
+        return successResponse();
+    }
+
+    /**
+     * Останавливает обход одного сайта: очередь закрывается, выполняющиеся загрузки прерываются,
+     * а необработанные страницы остаются в контрольной точке для продолжения.
+     */
+    @Override
+    public IndexResponse stopSiteIndexing(String url) {
+        String key = normalizeBaseUrl(url);
+        boolean revoked = clustered() && leaseRepository.revoke(key) > 0;
+        if (!isRunning(key)) {
+            return revoked ? successResponse() : errorResponse("Индексация сайта не запущена");
+        }
+        log.info("⏹️ Остановка индексации сайта {}", key);
+        stopLocalCrawl(key, "Индексация сайта остановлена пользователем");
+        return successResponse();
+    }
+
+    /**
+     * Останавливает обход сайта на этом узле, например после потери аренды.
+     */
+    public void stopLocalCrawl(String key, String reason) {
+        CrawlFrontier frontier = frontiers.get(key);
+        if (frontier != null) {
+            frontier.stop(reason);
+        }
+        Thread thread = threads.get(key);
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Запускает на этом узле обход сайта по полученной аренде. onFinish вызывается после обхода при любом исходе.
+     *
+     * @return false, если сайта нет в конфигурации узла или он уже обходится здесь вне аренды
+     */
+    public boolean startLeasedSite(String key, boolean resumeRequested, Runnable onFinish) {
+        Site siteInfo = configuredSite(key);
+        if (siteInfo == null || isRunning(key)) {
+            return false;
+        }
+        SiteEntity existing = siteRepository.findByUrl(key);
+        boolean resume = resumeRequested && existing != null && checkpointRepository.existsBySiteId(existing.getId());
+        log.info("🤝 Обход {} по аренде {}", key, resume ? "с контрольной точки" : "с начала");
+        startSiteThread(key, () -> {
+            try {
+                indexSite(siteInfo, resume);
+            } finally {
+                onFinish.run();
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Приостанавливает обход сайта: новые загрузки не выдаются, выполняющиеся прерываются и ждут в очереди.
+     */
+    @Override
+    public IndexResponse pauseSiteIndexing(String url) {
+        String key = normalizeBaseUrl(url);
+        CrawlFrontier frontier = frontiers.get(key);
+        if (frontier == null) {
+            return errorResponse("Обход сайта не выполняется");
+        }
+        if (frontier.isPaused()) {
+            return errorResponse("Обход сайта уже приостановлен");
+        }
+        frontier.pause();
+        log.info("⏸️ Обход сайта {} приостановлен, в очереди: {}", key, frontier.queuedCount());
+        return successResponse();
     }
 
-    private void parsingSite(String url, SiteEntity site) {
-        log.info("🔍 Запускаем ForkJoinPool для сайта: {}", url);
-        ParsingLinksUrl parsingLinksUrl = new ParsingLinksUrl(url, site, pageRepository, siteRepository, this,
-                lemmaRepository, indexRepository, pageService);
-        ForkJoinPool forkJoinPool = new ForkJoinPool();
-        forkJoinPool.invoke(parsingLinksUrl);
+    /**
+     * Продолжает приостановленный обход, а остановленный или прерванный — с контрольной точки.
+     */
+    @Override
+    public IndexResponse resumeSiteIndexing(String url) {
+        String key = normalizeBaseUrl(url);
+        CrawlFrontier frontier = frontiers.get(key);
+        if (frontier != null) {
+            if (!frontier.isPaused()) {
+                return errorResponse("Обход сайта не приостановлен");
+            }
+            frontier.resume();
+            log.info("▶️ Обход сайта {} продолжен", key);
+            return successResponse();
+        }
+        Site siteInfo = configuredSite(url);
+        if (siteInfo == null) {
+            return errorResponse("Сайт не указан в конфигурации: " + url);
+        }
+        if (isRunning(key)) {
+            return errorResponse("Индексация сайта уже запущена");
+        }
+        SiteEntity existing = siteRepository.findByUrl(key);
+        if (existing == null || existing.getStatus() == Status.INDEXED) {
+            return errorResponse("Нет прерванной индексации");
+        }
+        if (clustered()) {
+            if (leaseRepository.offer(key, true) == 0) {
+                return errorResponse("Индексация сайта уже запущена");
+            }
+            log.info("🤝 Сайт {} выставлен на продолжение узлам кластера", key);
+            return successResponse();
+        }
+        boolean resume = checkpointRepository.existsBySiteId(existing.getId());
+        log.info("⏯️ Продолжаем индексацию {} {}", key, resume ? "с контрольной точки" : "повторным обходом");
+        startSiteThread(key, () -> indexSite(siteInfo, resume));
+        return successResponse();
+    }
+
+    public boolean isConfigured(String siteUrl) {
+        return configuredSite(siteUrl) != null;
+    }
+
+    private Site configuredSite(String url) {
+        String key = normalizeBaseUrl(url);
+        return sitesList.getSites().stream()
+                .filter(s -> normalizeBaseUrl(s.getUrl()).equals(key))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private void startSiteThread(String key, Runnable task) {
+        Thread thread = new Thread(task);
+        threads.put(key, thread);
+        thread.start();
+    }
+
+    private boolean isRunning(String key) {
+        Thread thread = threads.get(key);
+        return thread != null && thread.isAlive();
+    }
+
+    /**
+     * Идёт ли локально обход сайта: поток сайта жив, даже если его обход приостановлен.
+     */
+    public boolean isSiteRunning(String url) {
+        return isRunning(normalizeBaseUrl(url));
+    }
+
+    public boolean isAnySiteRunning() {
+        return threads.values().stream().anyMatch(Thread::isAlive);
+    }
+
+    /**
+     * Режим кластера: сайты не запускаются локально, а выставляются арендами, которые разбирают узлы.
+     */
+    private boolean clustered() {
+        return crawlerSettings.getCluster().isEnabled();
+    }
+
+    private void indexSite(Site siteInfo, boolean resume) {
+        String url = normalizeBaseUrl(siteInfo.getUrl());
+        log.info("🔗 Индексация сайта: {}", url);
+
+        SiteEntity existing = siteRepository.findByUrl(url);
+        boolean recrawl = existing != null;
+        SiteEntity site = recrawl ? existing : new SiteEntity();
+        site.setName(siteInfo.getName());
+        site.setUrl(url);
+        site.setStatus(Status.INDEXING);
+        site.setStatusTime(LocalDateTime.now());
+        site.setLastError(null);
+        siteRepository.save(site);
+
+        try {
+            parsingSite(url, site, siteInfo, recrawl, resume && recrawl);
+            site.setStatus(Status.INDEXED);
+        } catch (IndexingInterruptedException e) {
+            site.setStatus(Status.FAILED);
+            site.setLastError(e.getMessage());
+            log.warn("🛑 Индексация остановлена пользователем для сайта {}: {}", url, e.getMessage());
+        } catch (Exception e) {
+            site.setStatus(Status.FAILED);
+            site.setLastError("Ошибка при обходе: " + e.getMessage());
+            log.error("❌ Ошибка индексации для {}: {}", url, e.getMessage(), e);
+        }
+
+        site.setStatusTime(LocalDateTime.now());
+        siteRepository.save(site);
+    }
+
+    private void parsingSite(String url, SiteEntity site, Site siteInfo, boolean recrawl, boolean resume) {
+        log.info("🔍 Запускаем обход сайта: {}", url);
+        RobotsRules robots = crawlerSettings.isRobotsEnabled() ? sitemapReader.readRobots(url) : RobotsRules.allowAll();
+        rateLimiter.register(hostOf(url), siteInfo, robots.getCrawlDelay());
+        hostHealth.reset(hostOf(url));
+        CrawlExecutor crawlExecutor = executorFactory.create(url);
+        CrawlFrontier frontier = new CrawlFrontier(crawlExecutor.executor(), crawlExecutor.concurrency(),
+                UrlCanonicalizer::fingerprint, rateLimiter,
+                new OffHeapVisitedSet(crawlerSettings.getVisitedSetMemory().toBytes()));
+        frontier.setAdmissionFilter(link -> robots.isAllowed(pathOf(link)));
+        WeightedSlots.Share fetchShare = budget.registerSite(url, siteInfo.getWeight());
+        frontier.setFetchShare(fetchShare);
+        frontier.setHostGate(hostHealth::delayNanos);
+        frontier.setHostPermits(hostHealth);
+        CrawlPolicy policy = CrawlPolicy.of(siteInfo);
+        frontier.setPolicy(policy);
+        log.info("📐 Политика обхода {}: {}", url, policy);
+        SimHashIndex duplicates = newSimHashIndex(site, recrawl);
+        ParsingLinksUrl parsingLinksUrl = new ParsingLinksUrl(site, frontier, duplicates, recrawl, pageRepository,
+                siteRepository, this, pageService, budget, pipeline);
+        CrawlCheckpoint checkpoint = new CrawlCheckpoint(site, checkpointRepository);
+        String root = Objects.requireNonNullElse(UrlCanonicalizer.canonicalUrl(url), url);
+        Set<String> storedPaths = resume ? new HashSet<>(pageRepository.findPathsBySiteId(site.getId())) : Set.of();
+        List<CrawlRequest> restored = resume
+                ? checkpoint.load(link -> storedPaths.contains(UrlCanonicalizer.path(link)))
+                : List.of();
+        if (resume) {
+            frontier.markVisited(storedPaths.stream().map(path -> pageKey(root, path)).toList());
+            log.info("⏯️ Контрольная точка {}: сохранено страниц {}, в очереди {}", url, storedPaths.size(),
+                    restored.size());
+        } else {
+            checkpoint.clear();
+        }
+        frontier.setJournal(checkpoint);
+        frontiers.put(url, frontier);
+
+        boolean finished = false;
+        boolean interrupted = false;
+        try {
+            frontier.start(root, parsingLinksUrl, () -> {
+                if (resume) {
+                    restored.forEach(frontier::restore);
+                } else if (crawlerSettings.isSitemapsEnabled()) {
+                    seedFromSitemaps(url, site, recrawl, robots, frontier);
+                }
+            });
+            long interval = crawlerSettings.getCheckpointInterval().toMillis();
+            while (!frontier.await(interval, TimeUnit.MILLISECONDS)) {
+                checkpoint.flush();
+                reportStuck(url, frontier);
+            }
+            finished = true;
+            log.info("🏁 Обход сайта {} завершён, уникальных страниц: {}", url, frontier.visitedCount());
+            if (recrawl && !resume) {
+                removeStalePages(site, frontier);
+            }
+            rankPages(site);
+        } catch (InterruptedException e) {
+            frontier.cancel("Индексация остановлена пользователем");
+            interrupted = true;
+            throw new IndexingInterruptedException("Индексация остановлена пользователем");
+        } finally {
+            frontiers.remove(url);
+            crawlExecutor.close();
+            fetchShare.close();
+            saveCheckpoint(checkpoint, finished);
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void rankPages(SiteEntity site) {
+        CrawlerSettings.StaticRank settings = crawlerSettings.getStaticRank();
+        if (!settings.isEnabled()) {
+            return;
+        }
+        try {
+            new StaticRanker(pageRepository, budget, settings).rank(site);
+        } catch (RuntimeException e) {
+            log.error("❌ Не удалось пересчитать статический ранг {}: {}", site.getUrl(), e.getMessage(), e);
+        }
+    }
+
+    private void saveCheckpoint(CrawlCheckpoint checkpoint, boolean finished) {
+        try {
+            if (finished) {
+                checkpoint.clear();
+            } else {
+                checkpoint.flush();
+            }
+        } catch (RuntimeException e) {
+            log.error("❌ Не удалось сохранить контрольную точку обхода: {}", e.getMessage(), e);
+        }
     }
 
     @Override
     public IndexResponse stopFullIndexing() {
         IndexResponse indexResponse = new IndexResponse();
 
+        int revoked = clustered() ? leaseRepository.revokeAll() : 0;
+        if (revoked > 0) {
+            log.info("🤝 Отозвано аренд обхода: {}, узлы остановят обход при следующем продлении", revoked);
+        }
         if (siteRepository.existsByStatus(Status.INDEXING)) {
             log.info("⏹️ Остановка индексации по запросу");
 
-            stopRequested = true;
-            threads.forEach(Thread::interrupt);
+            frontiers.values().forEach(frontier -> frontier.stop("Индексация остановлена пользователем"));
+            threads.values().forEach(Thread::interrupt);
 
             List<SiteEntity> indexingSites = siteRepository.findByStatus(Status.INDEXING);
             for (SiteEntity site : indexingSites) {
@@ -140,6 +518,8 @@ public class SiteIndexingServiceImpl implements SiteIndexingService {
                 log.info("🚫 Индексация сайта остановлена: {}", site.getUrl());
             }
 
+            indexResponse.setResult(true);
+        } else if (revoked > 0) {
             indexResponse.setResult(true);
         } else {
             log.warn("Попытка остановить индексацию, но активных задач нет");
@@ -174,46 +554,81 @@ public class SiteIndexingServiceImpl implements SiteIndexingService {
 
 
     public String normalizePath(String url) {
-        try {
-            URL fullUrl = new URL(url);
-            String path = fullUrl.getPath();
-            if (path == null || path.isEmpty()) {
-                path = "/";
-            }
-            if (path.endsWith("/") && path.length() > 1) {
-                path = path.substring(0, path.length() - 1);
-            }
-            log.debug("Нормализованный путь для {} → '{}'", url, path);
-            return path;
-        } catch (MalformedURLException e) {
-            throw new RuntimeException("Некорректный URL: " + url, e);
+        String canonical = UrlCanonicalizer.canonicalUrl(url);
+        if (canonical == null) {
+            throw new RuntimeException("Некорректный URL: " + url);
         }
+        String path = UrlCanonicalizer.path(canonical);
+        log.debug("Нормализованный путь для {} → '{}'", url, path);
+        return path;
     }
 
-    public void saveLemmaAndIndex(PageEntity page) throws IOException {
+    /**
+     * Ключ фронтира для страницы, сохранённой в БД только путём.
+     */
+    private static long pageKey(String siteUrl, String path) {
+        return UrlCanonicalizer.fingerprint(UrlCanonicalizer.origin(siteUrl) + path);
+    }
 
-        log.info("▶️ Сохраняем леммы и индексы для page id={} path='{}'", page.getId(), page.getPath());
+    public void saveLemmaAndIndex(PageEntity page) throws IOException {
+        Map<String, Integer> lemmas = collectLemmas(page.getContent(), page.getPath());
+        if (lemmas != null) {
+            saveLemmaAndIndex(page, lemmas);
+        }
+    }
 
+    /**
+     * Лемматизация текста страницы.
+     *
+     * @return леммы с частотами или null, если лемматизация не удалась и страница остаётся без индекса
+     */
+    public Map<String, Integer> collectLemmas(String text, String path) throws IOException {
         LemmaFinder lemmaFinder = LemmaFinder.getInstance();
-        List<SearchIndexEntity> searchIndexEntities = new ArrayList<>();
+        try {
+            return budget.parse(() -> lemmaFinder.collectLemmas(text));
+        } catch (IndexingInterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("⚠ Ошибка лемматизации, индексируем без лемм. path='{}'", path, e);
+            return null;
+        }
+    }
 
+    public void saveLemmaAndIndex(PageEntity page, Map<String, Integer> lemmas) {
+        log.info("▶️ Сохраняем леммы и индексы для page id={} path='{}'", page.getId(), page.getPath());
         int siteId = page.getSite().getId();
-        Map<String, Integer> lemmas;
+        budget.write(() -> {
+            writeLemmaAndIndex(page, siteId, lemmas);
+            return null;
+        });
+        log.info("✅ Леммы и индексы сохранены для page id={}", page.getId());
+    }
 
-        try {
-            lemmas = lemmaFinder.collectLemmas(page.getContent());
-        } catch (Exception e) {
-            log.error("⚠ Ошибка лемматизации, индексируем без лемм. page={}", page.getId(), e);
+    /**
+     * Леммы страницы записываются одним многострочным upsert-ом в отсортированном порядке,
+     * а их id читаются одним запросом вместо двух обращений к БД на каждую лемму.
+     */
+    private void writeLemmaAndIndex(PageEntity page, int siteId, Map<String, Integer> lemmas) {
+        if (lemmas.isEmpty()) {
             return;
         }
+        List<String> sorted = lemmas.keySet().stream().sorted().toList();
+        lemmaRepository.upsertLemmas(siteId, sorted);
+        Map<String, LemmaEntity> stored = new HashMap<>(sorted.size() * 2);
+        for (LemmaEntity lemma : lemmaRepository.findAllBySiteIdAndLemmaIn(siteId, sorted)) {
+            stored.put(lemma.getLemma(), lemma);
+        }
 
+        List<SearchIndexEntity> searchIndexEntities = new ArrayList<>();
         for (Map.Entry<String, Integer> word : lemmas.entrySet()) {
             String lemmaKey = word.getKey();
 
-            lemmaRepository.upsertLemma(lemmaKey, siteId);
-
-            LemmaEntity lemma = lemmaRepository.findBySiteIdAndLemma(siteId, lemmaKey)
-                    .orElseThrow(() -> new IllegalStateException("Lemma не найдена после UPSERT: " + lemmaKey));
+            LemmaEntity lemma = stored.get(lemmaKey);
+            if (lemma == null) {
+                // сопоставление строк в MySQL может отличаться от Java: такую лемму ищем её собственным запросом
+                lemma = lemmaRepository.findBySiteIdAndLemma(siteId, lemmaKey)
+                        .orElseThrow(() -> new IllegalStateException("Lemma не найдена после UPSERT: " + lemmaKey));
+            }
             SearchIndexEntity indexEntry = new SearchIndexEntity();
             indexEntry.setPage(page);
             indexEntry.setLemma(lemma);
@@ -228,30 +643,36 @@ public class SiteIndexingServiceImpl implements SiteIndexingService {
         if (!searchIndexEntities.isEmpty()) {
             indexRepository.saveAll(searchIndexEntities);
         }
-
-        log.info("✅ Леммы и индексы сохранены для page id={}", page.getId());
     }
-    public Connection.Response safeConnect(String url) throws IOException {
-        int attempts = 3;
+
+    /**
+     * Загрузка одной страницы вне обхода: при ошибке ждём паузу хоста и повторяем.
+     */
+    public FetchResult safeConnect(String url) throws IOException {
+        int attempts = crawlerSettings.getRetry().getMaxAttempts();
         IOException lastEx = null;
 
         for (int i = 1; i <= attempts; i++) {
             try {
-                return Jsoup.connect(url)
-                        .timeout(10_000)
-                        .ignoreHttpErrors(true)
-                        .ignoreContentType(true)
-                        .userAgent("HeliontSearchBot/1.0 (+https://heliont.example.com/bot-info)")
-                        .referrer("https://www.google.com")
-                        .execute();
+                return fetchPage(url, null, null);
             } catch (UnknownHostException e) {
                 log.error("❌ DNS не найден: {}", url);
                 throw e;
+            } catch (HostUnavailableException e) {
+                if (e.isPermanent()) throw e;
+                lastEx = e;
+            } catch (SocketTimeoutException e) {
+                lastEx = e;
+                log.warn("⏳ Попытка {} не удалась для {}: {}", i, url, e.getMessage());
+            } catch (InterruptedIOException e) {
+                throw e;
             } catch (IOException e) {
                 lastEx = e;
                 log.warn("⏳ Попытка {} не удалась для {}: {}", i, url, e.getMessage());
+            }
+            if (i < attempts) {
                 try {
-                    Thread.sleep(2000);
+                    TimeUnit.NANOSECONDS.sleep(hostHealth.delayNanos(hostOf(url)));
                 } catch (InterruptedException ie) {
                     Thread.currentThread().interrupt();
                     throw new RuntimeException("Поток прерван при ретрае", ie);
@@ -261,12 +682,164 @@ public class SiteIndexingServiceImpl implements SiteIndexingService {
 
         throw new IOException("Не удалось подключиться к " + url + " после " + attempts + " попыток", lastEx);
     }
+
+    /**
+     * Одна попытка загрузки с учётом состояния хоста. Ошибки сети, в том числе таймауты, 5xx и 429
+     * считаются сбоями хоста; отменённая загрузка сбоем не считается, но освобождает пробный запрос.
+     */
+    public FetchResult fetchPage(String url, String etag, String lastModified) throws IOException {
+        HostHealth health = hostHealth.of(hostOf(url));
+        health.beforeRequest(System.nanoTime());
+        long start = System.nanoTime();
+        try {
+            FetchResult result = pageFetcher.fetch(url, etag, lastModified);
+            long latency = System.nanoTime() - start;
+            if (result.isThrottled()) {
+                health.onThrottled(System.nanoTime(), latency, result.retryAfter());
+            } else if (result.statusCode() >= 500) {
+                health.onFailure(System.nanoTime(), latency);
+            } else {
+                health.onSuccess(latency);
+            }
+            return result;
+        } catch (SocketTimeoutException e) {
+            health.onFailure(System.nanoTime(), System.nanoTime() - start);
+            throw e;
+        } catch (InterruptedIOException e) {
+            health.onAbandoned();
+            throw e;
+        } catch (IOException e) {
+            health.onFailure(System.nanoTime(), System.nanoTime() - start);
+            throw e;
+        } catch (RuntimeException | Error e) {
+            health.onAbandoned();
+            throw e;
+        }
+    }
+
+    /**
+     * Стоит ли вернуть запрос в очередь после ошибки загрузки.
+     */
+    public boolean isRetryable(CrawlRequest request, IOException e) {
+        if (e instanceof HostUnavailableException unavailable) {
+            return !unavailable.isPermanent();
+        }
+        if (e instanceof UnknownHostException
+                || (e instanceof InterruptedIOException && !(e instanceof SocketTimeoutException))) {
+            return false;
+        }
+        return request.attempt() + 1 < crawlerSettings.getRetry().getMaxAttempts();
+    }
+
+    @Override
+    public List<HostHealthDto> getHostHealth() {
+        return hostHealth.snapshot();
+    }
+
+    /**
+     * Глубина очередей по стадиям: загрузка — сумма очередей обхода активных сайтов, дальше — стадии конвейера.
+     * Для загрузки также отдаётся среднее число байт, выделенных на страницу.
+     */
+    @Override
+    public List<PipelineStageDto> getPipelineStages() {
+        PipelineStageDto fetch = new PipelineStageDto();
+        fetch.setStage("fetch");
+        fetch.setThreads(crawlerSettings.getBudget().getFetchSlots());
+        fetch.setBytesPerItem(bufferPool.bytesPerPage());
+        for (CrawlFrontier frontier : frontiers.values()) {
+            fetch.setQueued(fetch.getQueued() + frontier.queuedCount());
+            fetch.setActive(fetch.getActive() + frontier.inFlightCount());
+        }
+        List<PipelineStageDto> stages = new ArrayList<>();
+        stages.add(fetch);
+        stages.addAll(pipeline.snapshot());
+        return stages;
+    }
+
+    /**
+     * Состояние активных обходов: выполняющиеся загрузки с возрастом, очереди хостов и число потоков сайта,
+     * а также паузы и повторы хостов.
+     */
+    @Override
+    public CrawlerStateDto getCrawlerState() {
+        long now = System.nanoTime();
+        long threshold = crawlerSettings.getWatchdog().getStuckThreshold().toNanos();
+        List<SiteCrawlDto> sites = new ArrayList<>();
+        frontiers.forEach((url, frontier) -> {
+            SiteCrawlDto site = new SiteCrawlDto();
+            site.setSite(url);
+            site.setWorkers(frontier.parallelism());
+            site.setActive(frontier.inFlightCount());
+            site.setQueued(frontier.queuedCount());
+            site.setVisited(frontier.visitedCount());
+            site.setPaused(frontier.isPaused());
+            site.setHostQueues(frontier.queuedByHost());
+            site.setInFlight(frontier.inFlight().stream().map(task -> {
+                InFlightFetchDto fetch = new InFlightFetchDto();
+                fetch.setUrl(task.request().url());
+                fetch.setHost(task.request().host());
+                fetch.setDepth(task.request().depth());
+                fetch.setAttempt(task.request().attempt());
+                fetch.setAgeMs(TimeUnit.NANOSECONDS.toMillis(task.ageNanos(now)));
+                fetch.setThread(task.threadName());
+                fetch.setThreadState(task.threadState().name());
+                fetch.setStuck(task.ageNanos(now) >= threshold);
+                fetch.setCancelled(task.isCancelled());
+                return fetch;
+            }).toList());
+            sites.add(site);
+        });
+        CrawlerStateDto state = new CrawlerStateDto();
+        state.setSites(sites);
+        state.setHosts(hostHealth.snapshot());
+        return state;
+    }
+
+    @Override
+    public IndexResponse cancelFetch(String url) {
+        for (CrawlFrontier frontier : frontiers.values()) {
+            if (frontier.cancelTask(url)) {
+                log.warn("⏹️ Загрузка {} отменена вручную", url);
+                return successResponse();
+            }
+        }
+        return errorResponse("Загрузка не выполняется: " + url);
+    }
+
+    /**
+     * Пишет в лог задачи обхода, зависшие дольше порога, со стеком потока и по настройке отменяет их.
+     */
+    private void reportStuck(String siteUrl, CrawlFrontier frontier) {
+        CrawlerSettings.Watchdog watchdog = crawlerSettings.getWatchdog();
+        long now = System.nanoTime();
+        for (CrawlFrontier.InFlight task : frontier.stuck(watchdog.getStuckThreshold().toNanos())) {
+            StringBuilder stack = new StringBuilder();
+            for (StackTraceElement frame : task.stackTrace(watchdog.getStackDepth())) {
+                stack.append("\n\tat ").append(frame);
+            }
+            log.warn("🐢 Задача обхода {} выполняется {} с, поток {} ({}), сайт {}:{}", task.request().url(),
+                    TimeUnit.NANOSECONDS.toSeconds(task.ageNanos(now)), task.threadName(), task.threadState(),
+                    siteUrl, stack);
+            if (watchdog.isCancelStuck() && frontier.cancelTask(task.request().url())) {
+                log.warn("⏹️ Зависшая загрузка {} отменена", task.request().url());
+            }
+        }
+    }
+
+    /**
+     * Идёт ли сейчас обход сайта: фоновая перепроверка его страницы не трогает.
+     */
+    public boolean isCrawling(String siteUrl) {
+        return frontiers.containsKey(siteUrl);
+    }
+
     private record ParsedUrl(String prefix, String suffix) {}
     private ParsedUrl parseUrl(String url) throws MalformedURLException {
-        URL parsedUrl = new URL(url);
-        String prefix = normalizeBaseUrl(parsedUrl.getProtocol() + "://" + parsedUrl.getHost());
-        String suffix = parsedUrl.getPath().isEmpty() ? "/" : parsedUrl.getPath();
-        return new ParsedUrl(prefix, suffix);
+        String canonical = UrlCanonicalizer.canonicalUrl(url);
+        if (canonical == null) {
+            throw new MalformedURLException("Некорректный URL: " + url);
+        }
+        return new ParsedUrl(UrlCanonicalizer.origin(canonical), UrlCanonicalizer.path(canonical));
     }
     private Site validateSiteFromConfig(String prefix, String url) {
         return sitesList.getSites().stream()
@@ -290,23 +863,125 @@ public class SiteIndexingServiceImpl implements SiteIndexingService {
     private void removeExistingPageIfExists(String path, SiteEntity site) {
         pageRepository.findByPathAndSiteId(path, site.getId()).ifPresent(page -> {
             log.info("♻️ Найдена старая страница. Удаляем: {}", path);
-            try {
-                LemmaFinder lemmaFinder = LemmaFinder.getInstance();
-                Set<String> lemmas = lemmaFinder.getLemmaSet(page.getContent());
-                lemmas.forEach(l -> lemmaRepository.decrementAllFrequencyBySiteIdAndLemma(site.getId(), l));
-            } catch (IOException e) {
-                log.error("Ошибка лемматизации при удалении страницы {}", path, e);
-            }
+            removePageIndex(page, site.getId());
+            pageRepository.delete(page);
+        });
+    }
+
+    public void removePageIndex(PageEntity page, int siteId) {
+        deletePageIndex(page, siteId, lemmaSetOf(page));
+    }
+
+    /**
+     * Леммы сохранённого текста страницы: по ним уменьшаются частоты при переиндексации.
+     */
+    public Set<String> lemmaSetOf(PageEntity page) {
+        try {
+            LemmaFinder lemmaFinder = LemmaFinder.getInstance();
+            return budget.parse(() -> lemmaFinder.getLemmaSet(page.getContent()));
+        } catch (IOException e) {
+            log.error("Ошибка лемматизации при удалении страницы {}", page.getPath(), e);
+            return Set.of();
+        }
+    }
 
+    public void deletePageIndex(PageEntity page, int siteId, Set<String> lemmas) {
+        budget.write(() -> {
+            lemmas.forEach(l -> lemmaRepository.decrementAllFrequencyBySiteIdAndLemma(siteId, l));
             indexRepository.deleteAllByPageId(page.getId());
-            pageRepository.delete(page);
+            return null;
         });
     }
+
+    private void seedFromSitemaps(String url, SiteEntity site, boolean recrawl, RobotsRules robots,
+                                  CrawlFrontier frontier) {
+        Map<String, Instant> storedLastModified = recrawl ? loadLastModified(site) : Map.of();
+        int admitted = 0;
+        int unchanged = 0;
+        for (SitemapEntry entry : sitemapReader.readSitemaps(url, robots)) {
+            String href = UrlCanonicalizer.canonicalUrl(entry.url());
+            if (href == null || !UrlCanonicalizer.isWithin(href, url)) continue;
+
+            Instant stored = storedLastModified.get(UrlCanonicalizer.path(href));
+            boolean isUnchanged = stored != null && entry.lastModified() != null
+                    && !entry.lastModified().isAfter(stored);
+            if (frontier.admit(href, 1, isUnchanged)) {
+                admitted++;
+                if (isUnchanged) unchanged++;
+            }
+        }
+        log.info("🗺️ Очередь {} заполнена из карт сайта: {} адресов, из них без изменений: {}",
+                url, admitted, unchanged);
+    }
+
+    private Map<String, Instant> loadLastModified(SiteEntity site) {
+        Map<String, Instant> result = new HashMap<>();
+        for (Object[] row : pageRepository.findLastModifiedBySiteId(site.getId())) {
+            try {
+                result.put((String) row[0],
+                        ZonedDateTime.parse((String) row[1], DateTimeFormatter.RFC_1123_DATE_TIME).toInstant());
+            } catch (DateTimeParseException e) {
+                log.debug("Некорректный Last-Modified у {}: {}", row[0], row[1]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Отпечатки уже сохранённых канонических страниц сайта для поиска почти-дубликатов вне обхода.
+     */
+    public SimHashIndex loadSimHashIndex(SiteEntity site) {
+        return newSimHashIndex(site, true);
+    }
+
+    private SimHashIndex newSimHashIndex(SiteEntity site, boolean recrawl) {
+        SimHashIndex index = new SimHashIndex(crawlerSettings.getNearDuplicateDistance());
+        if (recrawl && index.isEnabled()) {
+            List<Object[]> fingerprints = pageRepository.findFingerprintsBySiteId(site.getId());
+            fingerprints.forEach(row -> index.add((Long) row[1], (Integer) row[0]));
+            log.info("🧬 Загружено {} отпечатков SimHash для {}", fingerprints.size(), site.getUrl());
+        }
+        return index;
+    }
+
+    private void removeStalePages(SiteEntity site, CrawlFrontier frontier) {
+        List<String> stale = pageRepository.findPathsBySiteId(site.getId()).stream()
+                .filter(path -> !frontier.isVisited(pageKey(site.getUrl(), path)))
+                .toList();
+        log.info("🧹 Удаляем {} страниц, не найденных при повторном обходе {}", stale.size(), site.getUrl());
+        stale.forEach(path -> removeExistingPageIfExists(path, site));
+    }
+    /**
+     * Сохраняет не 2xx-ответ как запись только с кодом: без текста, валидаторов, лемм и индекса.
+     */
+    public void saveStatusPage(SiteEntity site, String path, int statusCode, PageEntity existing) {
+        if (existing != null && existing.getCode() == statusCode && existing.getContent().isEmpty()) {
+            return;
+        }
+        if (existing != null) {
+            removePageIndex(existing, site.getId());
+        }
+        budget.write(() -> pageService.createOrUpdatePage(site, path, statusCode, PageContent.EMPTY,
+                new PageMetadata(null, null, null, null, null)));
+        log.info("📄 Сохранён только код ответа {}: path='{}'", statusCode, path);
+    }
+
     private IndexResponse downloadAndIndexPage(String url, String path, SiteEntity site) throws IOException {
         try {
-            Connection.Response response = safeConnect(url);
-            Document document = response.parse();
-            PageEntity newPage = pageService.createOrUpdatePage(site, path, response.statusCode(), document.html());
+            FetchResult response = safeConnect(url);
+            if (!response.isSuccess()) {
+                saveStatusPage(site, path, response.statusCode(), null);
+                return successResponse();
+            }
+            if (!response.hasContent()) {
+                return errorResponse("Страница не является HTML-документом или превышает допустимый размер");
+            }
+            PageContent content = response.content();
+            OptionalLong simhash = SimHash.fingerprint(content.text());
+            EncodedContent encoded = EncodedContent.of(content);
+            PageMetadata metadata = new PageMetadata(response.etag(), response.lastModified(),
+                    ContentHash.of(encoded), simhash.isPresent() ? simhash.getAsLong() : null, null);
+            PageEntity newPage = pageService.createOrUpdatePage(site, path, response.statusCode(), encoded, metadata);
 
             saveLemmaAndIndex(newPage);
 
@@ -0,0 +1,17 @@
+package searchengine.services.interfaces;
+
+import searchengine.dto.IndexResponse;
+import searchengine.dto.JobDto;
+import searchengine.dto.JobResponse;
+import searchengine.dto.JobStatsDto;
+
+import java.util.List;
+
+public interface JobService {
+
+    JobResponse submit(String type, List<String> urls, Integer priority);
+    JobResponse getJob(int id);
+    List<JobDto> getJobs(String status);
+    IndexResponse cancel(int id);
+    JobStatsDto getStats();
+}
@@ -1,8 +1,18 @@
 package searchengine.services.interfaces;
 
+import searchengine.crawler.EncodedContent;
+import searchengine.crawler.PageContent;
+import searchengine.dto.PageMetadata;
 import searchengine.model.PageEntity;
 import searchengine.model.SiteEntity;
 
 public interface PageService {
-    PageEntity createOrUpdatePage(SiteEntity site, String path, int statusCode, String html);
+    PageEntity createOrUpdatePage(SiteEntity site, String path, int statusCode, PageContent content,
+                                  PageMetadata metadata);
+
+    /**
+     * То же для уже закодированного содержимого: байты передаются в запрос как есть.
+     */
+    PageEntity createOrUpdatePage(SiteEntity site, String path, int statusCode, EncodedContent content,
+                                  PageMetadata metadata);
 }
@@ -1,12 +1,25 @@
 package searchengine.services.interfaces;
 
+import searchengine.dto.CrawlerStateDto;
+import searchengine.dto.HostHealthDto;
 import searchengine.dto.IndexResponse;
+import searchengine.dto.PipelineStageDto;
 
 import java.io.IOException;
+import java.util.List;
 
 public interface SiteIndexingService {
 
     IndexResponse startFullIndexing();
     IndexResponse stopFullIndexing();
+    IndexResponse resumeIndexing();
+    IndexResponse startSiteIndexing(String url);
+    IndexResponse stopSiteIndexing(String url);
+    IndexResponse pauseSiteIndexing(String url);
+    IndexResponse resumeSiteIndexing(String url);
     IndexResponse indexPage(String url) throws IOException;
+    List<HostHealthDto> getHostHealth();
+    List<PipelineStageDto> getPipelineStages();
+    CrawlerStateDto getCrawlerState();
+    IndexResponse cancelFetch(String url);
 }
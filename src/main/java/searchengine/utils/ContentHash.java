@@ -0,0 +1,44 @@
+package searchengine.utils;
+
+import searchengine.crawler.EncodedContent;
+import searchengine.crawler.PageContent;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+public class ContentHash {
+
+    /**
+     * Хэш всего, что сохраняется о странице: заголовка, текста и ссылок.
+     */
+    public static String of(PageContent content) {
+        return of(EncodedContent.of(content));
+    }
+
+    /**
+     * Тот же хэш по уже закодированным байтам, без склейки строк: SHA-256 от title + '\n' + text + '\n' + links.
+     */
+    public static String of(EncodedContent content) {
+        MessageDigest digest = sha256();
+        digest.update(content.title().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+        digest.update(content.text());
+        digest.update((byte) '\n');
+        digest.update(content.links());
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public static String sha256(String content) {
+        return HexFormat.of().formatHex(sha256().digest(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+}
@@ -1,16 +1,19 @@
 package searchengine.utils;
 
 import lombok.extern.slf4j.Slf4j;
-import org.jsoup.Connection;
-import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import searchengine.crawler.CrawlBudget;
+import searchengine.crawler.CrawlFrontier;
+import searchengine.crawler.CrawlRequest;
+import searchengine.crawler.EncodedContent;
+import searchengine.crawler.FetchResult;
+import searchengine.crawler.HtmlExtractor;
+import searchengine.crawler.IndexingPipeline;
+import searchengine.crawler.PageContent;
+import searchengine.crawler.SimHashIndex;
+import searchengine.dto.PageMetadata;
+import searchengine.exceptions.HostUnavailableException;
 import searchengine.exceptions.IndexingInterruptedException;
 import searchengine.model.*;
-import searchengine.repositories.SearchIndexRepository;
-import searchengine.repositories.LemmaRepository;
 import searchengine.repositories.PageRepository;
 import searchengine.repositories.SiteRepository;
 import searchengine.services.interfaces.PageService;
@@ -19,20 +22,22 @@ import searchengine.services.SiteIndexingServiceImpl;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
 @Slf4j
-public class ParsingLinksUrl extends RecursiveAction {
+public class ParsingLinksUrl implements Consumer<CrawlRequest> {
 
-    private final String url;
     private final SiteEntity site;
+    private final CrawlFrontier frontier;
+    private final SimHashIndex duplicates;
+    private final boolean recrawl;
     private static final Set<String> BLOCKED_EXTENSIONS;
     private final PageRepository pageRepository;
     private final SiteRepository siteRepository;
-    private final LemmaRepository lemmaRepository;
-    private final SearchIndexRepository indexRepository;
     private final SiteIndexingServiceImpl indexingService;
     private final PageService pageService;
-
+    private final CrawlBudget budget;
+    private final IndexingPipeline pipeline;
 
     static {
         BLOCKED_EXTENSIONS = new HashSet<>();
@@ -49,85 +54,225 @@ public class ParsingLinksUrl extends RecursiveAction {
         BLOCKED_EXTENSIONS.add(".gz");
     }
 
-    public ParsingLinksUrl(String url,
-                           SiteEntity site,
+    public ParsingLinksUrl(SiteEntity site,
+                           CrawlFrontier frontier,
+                           SimHashIndex duplicates,
+                           boolean recrawl,
                            PageRepository pageRepository,
                            SiteRepository siteRepository, SiteIndexingServiceImpl indexingService,
-                           LemmaRepository lemmaRepository, SearchIndexRepository indexRepository, PageService pageService) {
-        this.url = url;
+                           PageService pageService,
+                           CrawlBudget budget,
+                           IndexingPipeline pipeline) {
         this.site = site;
+        this.frontier = frontier;
+        this.duplicates = duplicates;
+        this.recrawl = recrawl;
         this.pageRepository = pageRepository;
         this.siteRepository = siteRepository;
-        this.lemmaRepository = lemmaRepository;
-        this.indexRepository = indexRepository;
-        this.indexingService=indexingService;
+        this.indexingService = indexingService;
         this.pageService = pageService;
+        this.budget = budget;
+        this.pipeline = pipeline;
     }
 
     @Override
-    protected void compute() {
-        if (Thread.currentThread().isInterrupted() || indexingService.isStopRequested()) {
-            log.warn("Остановка обхода: поток прерван или остановлен вручную. Сайт: {}", site.getUrl());
-            throw new IndexingInterruptedException("Индексация остановлена пользователем");
-        }
-        try {
-            Thread.sleep(2000);
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
-        }
+    public void accept(CrawlRequest request) {
+        String url = request.url();
+        checkStopped();
         log.info("▶️ Старт обработки: {}", url);
-        List<ParsingLinksUrl> allTask = new ArrayList<>();
         try {
-            Connection.Response response = indexingService.safeConnect(url);
-
-            int statusCode = response.statusCode();
-            log.info("🔗 Ответ от {}: HTTP {}", url, statusCode);
-            Document document = response.parse();
-            site.setStatusTime(LocalDateTime.now());
-            siteRepository.save(site);
             String path = indexingService.normalizePath(url);
             log.info("📌 Path после normalize: '{}'", path);
-            String html = document.html();
-            Optional<PageEntity> result = pageRepository.findByPathAndSiteId(path, site.getId());
-            if (result.isPresent()) return;
-            PageEntity page = pageService.createOrUpdatePage(site, path, statusCode, html);
-            log.info("💾 Page сохранена: siteId={}, path='{}'", site.getId(), path);
-            indexingService.saveLemmaAndIndex(page);
-            log.info("✅ Леммы и индексы сохранены для path='{}'", path);
-            Elements links = document.select("a[href]");
+            PageEntity existing = recrawl ? pageRepository.findByPathAndSiteId(path, site.getId()).orElse(null) : null;
+
+            List<String> links;
+            if (request.unchanged() && existing != null) {
+                log.info("🗺️ Страница не менялась по lastmod карты сайта, загрузка пропущена: {}", url);
+                links = storedLinks(existing, url);
+            } else {
+                links = fetchAndSave(request, path, existing);
+            }
+
             log.info("🔍 Найдено ссылок на странице {}: {}", url, links.size());
-            for (Element link : links) {
-                if (Thread.currentThread().isInterrupted() || indexingService.isStopRequested()) {
-                    log.warn("Остановка обхода внутри цикла: поток прерван или остановлен вручную. Сайт: {}", site.getUrl());
-                    throw new IndexingInterruptedException("Индексация остановлена пользователем");
+            int admitted = 0;
+            for (String link : links) {
+                checkStopped();
+                String href = UrlCanonicalizer.canonicalUrl(link);
+                if (href == null || !UrlCanonicalizer.isWithin(href, site.getUrl())
+                        || BLOCKED_EXTENSIONS.contains(UrlCanonicalizer.extension(href))) {
+                    continue;
                 }
-                String href = link.absUrl("href").split("#")[0].split("\\?")[0];
-                boolean isFile = BLOCKED_EXTENSIONS.stream().anyMatch(href::endsWith);
-                boolean startWithMainUrl = href.startsWith(site.getUrl());
-                boolean isNotPage = !href.contains("#");
-
-
-                if (startWithMainUrl
-                        && isNotPage
-                        && !isFile) {
-                    log.debug("➡️ Fork новая ссылка: {}", href);
-                    ParsingLinksUrl task = new ParsingLinksUrl(href, site, pageRepository, siteRepository,
-                            indexingService, lemmaRepository, indexRepository, pageService);
-                    task.fork();
-                    allTask.add(task);
+                if (frontier.admit(href, request.depth() + 1, false)) {
+                    log.debug("➡️ Новая ссылка в очереди: {}", href);
+                    admitted++;
                 }
             }
-            invokeAll(allTask);
-            log.info("✅ Завершено: {}", url);
-
-
+            log.info("✅ Завершено: {}, новых ссылок: {}", url, admitted);
+        } catch (HostUnavailableException e) {
+            if (e.isPermanent()) {
+                log.warn("⛔ {}: {}", url, e.getMessage());
+                throw new RuntimeException(e);
+            }
+            log.info("🔌 {}: {}, запрос возвращён в очередь", url, e.getMessage());
+            frontier.retry(request);
         } catch (IOException e) {
+            if (indexingService.isRetryable(request, e)) {
+                log.warn("⏳ Попытка {} не удалась для {}: {}, повтор после паузы хоста",
+                        request.attempt() + 1, url, e.getMessage());
+                frontier.retry(request.nextAttempt());
+                return;
+            }
             log.error("❌ Ошибка при подключении к {}: {}", url, e.getMessage(), e);
             throw new RuntimeException(e);
         }
+    }
+
+    /**
+     * Загрузка — стадия обхода. Разбор, лемматизация и запись уходят в стадии конвейера,
+     * а ссылки ставятся в очередь сразу, не дожидаясь БД.
+     */
+    private List<String> fetchAndSave(CrawlRequest request, String path, PageEntity existing) throws IOException {
+        String url = request.url();
+        FetchResult response = frontier.fetch(() -> existing == null
+                ? indexingService.fetchPage(url, null, null)
+                : indexingService.fetchPage(url, existing.getEtag(), existing.getLastModified()));
+
+        int statusCode = response.statusCode();
+        log.info("🔗 Ответ от {}: HTTP {}", url, statusCode);
 
+        if (response.notModified()) {
+            log.info("♻️ Страница не изменилась (304), индексация пропущена: {}", url);
+            return storedLinks(existing, url);
+        }
+        if (!response.isSuccess()) {
+            toStage(pipeline::write, frontier.handOff(request), path, handoff -> {
+                indexingService.saveStatusPage(site, path, statusCode, existing);
+                touchSite();
+                return true;
+            });
+            return List.of();
+        }
+        if (!response.hasContent()) {
+            log.info("🚫 Не HTML или больше лимита ({}), страница пропущена: {}", response.contentType(), url);
+            return List.of();
+        }
+        PageContent content = response.content();
+        toStage(pipeline::parse, frontier.handOff(request), path,
+                handoff -> parsePage(handoff, path, statusCode, content, response, existing));
+        return content.links();
+    }
 
+    /**
+     * Ссылки сохранённой страницы. Страницы, сохранённые до появления колонки links, хранят HTML,
+     * и ссылки из них извлекаются заново.
+     */
+    private List<String> storedLinks(PageEntity existing, String url) {
+        return existing.getLinks() != null
+                ? PageContent.splitLinks(existing.getLinks())
+                : HtmlExtractor.extract(existing.getContent(), url).links();
     }
 
-}
+    /**
+     * Стадия разбора: хэши, поиск почти-дубликата и лемматизация, без обращений к БД.
+     *
+     * @return true, если обработка страницы завершена на этой стадии
+     */
+    private boolean parsePage(CrawlFrontier.Handoff handoff, String path, int statusCode, PageContent content,
+                              FetchResult response, PageEntity existing) throws IOException {
+        OptionalLong simhash = budget.parse(() -> SimHash.fingerprint(content.text()));
+        EncodedContent encoded = EncodedContent.of(content);
+        PageMetadata metadata = new PageMetadata(response.etag(), response.lastModified(),
+                ContentHash.of(encoded), simhash.isPresent() ? simhash.getAsLong() : null, null);
 
+        if (existing != null && metadata.contentHash().equals(existing.getContentHash())) {
+            log.info("♻️ Содержимое не изменилось, индексация пропущена: path='{}'", path);
+            if (Objects.equals(existing.getEtag(), metadata.etag())
+                    && Objects.equals(existing.getLastModified(), metadata.lastModified())) {
+                return true;
+            }
+            toStage(pipeline::write, handoff, path, h -> {
+                budget.write(() -> {
+                    pageRepository.updateValidators(existing.getId(), metadata.etag(), metadata.lastModified());
+                    return null;
+                });
+                return true;
+            });
+            return false;
+        }
+
+        Integer canonicalId = simhash.isPresent() ? duplicates.findNear(simhash.getAsLong()) : null;
+        boolean duplicate = canonicalId != null && (existing == null || !canonicalId.equals(existing.getId()));
+        Set<String> staleLemmas = existing != null ? indexingService.lemmaSetOf(existing) : Set.of();
+        Map<String, Integer> lemmas = duplicate ? null : indexingService.collectLemmas(content.text(), path);
+        EncodedContent stored = duplicate ? EncodedContent.of(content.withoutText()) : encoded;
+
+        toStage(pipeline::write, handoff, path, h -> {
+            if (existing != null) {
+                indexingService.deletePageIndex(existing, site.getId(), staleLemmas);
+            }
+            if (duplicate) {
+                budget.write(() -> pageService.createOrUpdatePage(site, path, statusCode, stored,
+                        metadata.withDuplicateOf(canonicalId)));
+                log.info("🪞 Почти-дубликат страницы id={}, сохранён без индексации: path='{}'", canonicalId, path);
+            } else {
+                PageEntity page = budget.write(() ->
+                        pageService.createOrUpdatePage(site, path, statusCode, stored, metadata));
+                simhash.ifPresent(fingerprint -> duplicates.add(fingerprint, page.getId()));
+                log.info("💾 Page сохранена: siteId={}, path='{}'", site.getId(), path);
+                if (lemmas != null) {
+                    indexingService.saveLemmaAndIndex(page, lemmas);
+                }
+            }
+            touchSite();
+            return true;
+        });
+        return false;
+    }
+
+    private void touchSite() {
+        site.setStatusTime(LocalDateTime.now());
+        budget.write(() -> siteRepository.save(site));
+    }
+
+    /**
+     * Передаёт задачу стадии конвейера. Задача возвращает false, если сама передала страницу следующей стадии.
+     * Ошибка стадии, как и ошибка обработчика обхода, пишется в лог и не останавливает обход;
+     * после остановки индексации страница остаётся в контрольной точке.
+     */
+    private void toStage(Consumer<Runnable> stage, CrawlFrontier.Handoff handoff, String path, StageTask task) {
+        try {
+            stage.accept(() -> {
+                if (frontier.isCancelled()) {
+                    handoff.abandon();
+                    return;
+                }
+                try {
+                    if (task.run(handoff)) {
+                        handoff.complete();
+                    }
+                } catch (IndexingInterruptedException e) {
+                    handoff.abandon();
+                } catch (IOException | RuntimeException e) {
+                    log.error("❌ Ошибка индексации path='{}': {}", path, e.getMessage(), e);
+                    handoff.complete();
+                }
+            });
+        } catch (RuntimeException e) {
+            handoff.abandon();
+            throw e;
+        }
+    }
+
+    @FunctionalInterface
+    private interface StageTask {
+        boolean run(CrawlFrontier.Handoff handoff) throws IOException;
+    }
+
+    private void checkStopped() {
+        if (Thread.currentThread().isInterrupted() || frontier.isTaskCancelled()) {
+            log.warn("Остановка обхода: задача отменена, обход приостановлен или остановлен. Сайт: {}", site.getUrl());
+            throw new IndexingInterruptedException("Индексация остановлена пользователем");
+        }
+    }
+
+}
@@ -0,0 +1,62 @@
+package searchengine.utils;
+
+import java.util.OptionalLong;
+
+/**
+ * 64-битный SimHash по словам видимого текста страницы, вес слова — число его вхождений.
+ * Близкие по содержанию страницы дают отпечатки с малым расстоянием Хэмминга.
+ */
+public class SimHash {
+
+    private static final int MIN_WORDS = 20;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    public static OptionalLong fingerprint(String text) {
+        if (text == null) return OptionalLong.empty();
+
+        int[] weights = new int[64];
+        int words = 0;
+        long hash = FNV_OFFSET;
+        boolean inWord = false;
+
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                hash = (hash ^ Character.toLowerCase(c)) * FNV_PRIME;
+                inWord = true;
+                continue;
+            }
+            if (!inWord) continue;
+
+            long feature = mix(hash);
+            for (int bit = 0; bit < 64; bit++) {
+                weights[bit] += ((feature >>> bit) & 1L) == 1L ? 1 : -1;
+            }
+            words++;
+            hash = FNV_OFFSET;
+            inWord = false;
+        }
+
+        if (words < MIN_WORDS) return OptionalLong.empty();
+
+        long fingerprint = 0;
+        for (int bit = 0; bit < 64; bit++) {
+            if (weights[bit] > 0) fingerprint |= 1L << bit;
+        }
+        return OptionalLong.of(fingerprint);
+    }
+
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
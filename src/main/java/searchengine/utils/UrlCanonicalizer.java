@@ -0,0 +1,245 @@
+package searchengine.utils;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Приведение URL к канонической форме без регулярных выражений, за один проход по строке:
+ * <ul>
+ *     <li>схема и хост в нижнем регистре, ведущий «www.» и завершающая точка хоста убираются;</li>
+ *     <li>userinfo и порт по умолчанию (80/443) отбрасываются;</li>
+ *     <li>%XX незарезервированных символов декодируются, остальные — в верхнем регистре,
+ *     не-ASCII символы кодируются в UTF-8;</li>
+ *     <li>сегменты «.» и «..» удаляются, завершающий «/» убирается (кроме корня);</li>
+ *     <li>query и fragment отбрасываются — обходчик их не различает.</li>
+ * </ul>
+ * Вместе с формой возвращается 64-битный отпечаток, по которому ведутся дедупликация и хранение.
+ */
+public final class UrlCanonicalizer {
+
+    public record CanonicalUrl(String url, long fingerprint) {
+    }
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private UrlCanonicalizer() {
+    }
+
+    /**
+     * @return каноническая форма или null, если это не абсолютный http(s)-адрес
+     */
+    public static CanonicalUrl canonicalize(String url) {
+        String canonical = canonicalUrl(url);
+        return canonical == null ? null : new CanonicalUrl(canonical, fingerprint(canonical));
+    }
+
+    public static String canonicalUrl(String url) {
+        if (url == null) return null;
+        int begin = 0;
+        int end = url.length();
+        while (begin < end && url.charAt(begin) <= ' ') begin++;
+        while (end > begin && url.charAt(end - 1) <= ' ') end--;
+
+        int schemeEnd = url.indexOf("://", begin);
+        if (schemeEnd <= begin || schemeEnd >= end) return null;
+        String scheme = lowerAscii(url, begin, schemeEnd);
+        int defaultPort;
+        if (scheme.equals("http")) {
+            defaultPort = 80;
+        } else if (scheme.equals("https")) {
+            defaultPort = 443;
+        } else {
+            return null;
+        }
+
+        int authorityStart = schemeEnd + 3;
+        int authorityEnd = authorityStart;
+        while (authorityEnd < end) {
+            char c = url.charAt(authorityEnd);
+            if (c == '/' || c == '?' || c == '#' || c == '\\') break;
+            authorityEnd++;
+        }
+        int hostStart = Math.max(authorityStart, url.lastIndexOf('@', authorityEnd - 1) + 1);
+        if (hostStart >= authorityEnd) return null;
+
+        int hostEnd = authorityEnd;
+        int port = -1;
+        int bracket = url.charAt(hostStart) == '[' ? url.indexOf(']', hostStart) : -1;
+        int colon = url.lastIndexOf(':', authorityEnd - 1);
+        if (colon >= hostStart && colon > bracket) {
+            hostEnd = colon;
+            if (colon + 1 < authorityEnd) {
+                port = parsePort(url, colon + 1, authorityEnd);
+                if (port < 0) return null;
+            }
+        }
+        String host = lowerAscii(url, hostStart, hostEnd);
+        while (host.endsWith(".")) host = host.substring(0, host.length() - 1);
+        if (host.startsWith("www.")) host = host.substring(4);
+        if (host.isEmpty()) return null;
+
+        int pathEnd = authorityEnd;
+        while (pathEnd < end && url.charAt(pathEnd) != '?' && url.charAt(pathEnd) != '#') pathEnd++;
+
+        StringBuilder out = new StringBuilder(pathEnd - begin + 8);
+        out.append(scheme).append("://").append(host);
+        if (port >= 0 && port != defaultPort) out.append(':').append(port);
+        int pathStart = out.length();
+        appendPath(out, url, authorityEnd, pathEnd, pathStart);
+        if (out.length() == pathStart) {
+            out.append('/');
+        } else if (out.length() > pathStart + 1 && out.charAt(out.length() - 1) == '/') {
+            out.setLength(out.length() - 1);
+        }
+        return out.toString();
+    }
+
+    /**
+     * 64-битный отпечаток уже канонической строки: FNV-1a с перемешиванием финализатора MurmurHash3.
+     */
+    public static long fingerprint(String canonicalUrl) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < canonicalUrl.length(); i++) {
+            hash ^= canonicalUrl.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * scheme://host[:port] канонического адреса.
+     */
+    public static String origin(String canonicalUrl) {
+        int slash = canonicalUrl.indexOf('/', canonicalUrl.indexOf("://") + 3);
+        return slash < 0 ? canonicalUrl : canonicalUrl.substring(0, slash);
+    }
+
+    /**
+     * Путь канонического адреса, совпадающий с page.path.
+     */
+    public static String path(String canonicalUrl) {
+        return canonicalUrl.substring(origin(canonicalUrl).length());
+    }
+
+    /**
+     * Лежит ли адрес внутри сайта: префикс должен совпадать по границе сегмента пути,
+     * чтобы https://site.ru не захватывал https://site.ru.other.com.
+     */
+    public static boolean isWithin(String canonicalUrl, String siteUrl) {
+        if (!canonicalUrl.startsWith(siteUrl)) return false;
+        return canonicalUrl.length() == siteUrl.length()
+                || siteUrl.endsWith("/")
+                || canonicalUrl.charAt(siteUrl.length()) == '/';
+    }
+
+    /**
+     * Расширение последнего сегмента пути в нижнем регистре с точкой или пустая строка.
+     */
+    public static String extension(String canonicalUrl) {
+        int slash = canonicalUrl.lastIndexOf('/');
+        int dot = canonicalUrl.lastIndexOf('.');
+        return dot > slash && slash > canonicalUrl.indexOf("://") + 2
+                ? lowerAscii(canonicalUrl, dot, canonicalUrl.length())
+                : "";
+    }
+
+    /**
+     * Дописывает путь по сегментам, сразу удаляя «.» и «..» (RFC 3986, 5.2.4).
+     */
+    private static void appendPath(StringBuilder out, String url, int start, int end, int pathStart) {
+        int segmentStart = start;
+        while (segmentStart < end) {
+            segmentStart++;
+            int segmentEnd = segmentStart;
+            while (segmentEnd < end && url.charAt(segmentEnd) != '/' && url.charAt(segmentEnd) != '\\') segmentEnd++;
+
+            int mark = out.length();
+            out.append('/');
+            appendSegment(out, url, segmentStart, segmentEnd);
+            int length = out.length() - mark - 1;
+            if (length == 1 && out.charAt(mark + 1) == '.') {
+                out.setLength(mark);
+            } else if (length == 2 && out.charAt(mark + 1) == '.' && out.charAt(mark + 2) == '.') {
+                out.setLength(mark);
+                int parent = out.lastIndexOf("/");
+                if (parent >= pathStart) out.setLength(parent);
+            }
+            segmentStart = segmentEnd;
+        }
+    }
+
+    private static void appendSegment(StringBuilder out, String url, int start, int end) {
+        for (int i = start; i < end; ) {
+            char c = url.charAt(i);
+            if (c == '%' && i + 2 < end && hexValue(url.charAt(i + 1)) >= 0 && hexValue(url.charAt(i + 2)) >= 0) {
+                int value = hexValue(url.charAt(i + 1)) * 16 + hexValue(url.charAt(i + 2));
+                if (isUnreserved(value)) {
+                    out.append((char) value);
+                } else {
+                    appendEncoded(out, value);
+                }
+                i += 3;
+            } else if (c < 0x80) {
+                if (isAllowed(c)) {
+                    out.append(c);
+                } else {
+                    appendEncoded(out, c);
+                }
+                i++;
+            } else {
+                int codePoint = url.codePointAt(i);
+                for (byte b : new String(Character.toChars(codePoint)).getBytes(StandardCharsets.UTF_8)) {
+                    appendEncoded(out, b & 0xFF);
+                }
+                i += Character.charCount(codePoint);
+            }
+        }
+    }
+
+    private static void appendEncoded(StringBuilder out, int value) {
+        out.append('%').append(HEX[value >> 4]).append(HEX[value & 0xF]);
+    }
+
+    private static boolean isUnreserved(int c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '.' || c == '_' || c == '~';
+    }
+
+    private static boolean isAllowed(char c) {
+        if (isUnreserved(c)) return true;
+        return switch (c) {
+            case '!', '$', '&', '\'', '(', ')', '*', '+', ',', ';', '=', ':', '@' -> true;
+            default -> false;
+        };
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') return c - '0';
+        if (c >= 'a' && c <= 'f') return c - 'a' + 10;
+        if (c >= 'A' && c <= 'F') return c - 'A' + 10;
+        return -1;
+    }
+
+    private static int parsePort(String url, int start, int end) {
+        int port = 0;
+        for (int i = start; i < end; i++) {
+            char c = url.charAt(i);
+            if (c < '0' || c > '9' || port > 65535) return -1;
+            port = port * 10 + (c - '0');
+        }
+        return port > 65535 ? -1 : port;
+    }
+
+    private static String lowerAscii(String s, int start, int end) {
+        char[] chars = new char[end - start];
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            chars[i - start] = c >= 'A' && c <= 'Z' ? (char) (c + 32) : c;
+        }
+        return new String(chars);
+    }
+}
@@ -1,12 +1,39 @@
 package searchengine.utils;
 
 public class UrlUtils {
+    /**
+     * Базовый адрес сайта: каноническая форма без завершающего «/».
+     */
     public static String normalizeBaseUrl(String url) {
         if (url == null) return null;
-        url = url.replace("www.", "");
+        String canonical = UrlCanonicalizer.canonicalUrl(url);
+        if (canonical != null) url = canonical;
         while (url.endsWith("/") && url.length() > 8) { // минимальная длина: https://x
             url = url.substring(0, url.length() - 1);
         }
         return url;
     }
+
+    public static String pathOf(String url) {
+        int start = url.indexOf("://");
+        start = url.indexOf('/', start < 0 ? 0 : start + 3);
+        if (start < 0) return "/";
+        int end = start;
+        while (end < url.length() && url.charAt(end) != '?' && url.charAt(end) != '#') {
+            end++;
+        }
+        return url.substring(start, end);
+    }
+
+    public static String hostOf(String url) {
+        int start = url.indexOf("://");
+        start = start < 0 ? 0 : start + 3;
+        int end = start;
+        while (end < url.length()) {
+            char c = url.charAt(end);
+            if (c == '/' || c == ':' || c == '?' || c == '#') break;
+            end++;
+        }
+        return url.substring(start, end).toLowerCase();
+    }
 }
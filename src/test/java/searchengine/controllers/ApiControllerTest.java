@@ -5,14 +5,20 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.http.ResponseEntity;
+import searchengine.dto.CrawlerStateDto;
+import searchengine.dto.HostHealthDto;
 import searchengine.dto.IndexResponse;
+import searchengine.dto.JobResponse;
+import searchengine.dto.PipelineStageDto;
 import searchengine.dto.SearchResponse;
 import searchengine.dto.statistics.StatisticsResponse;
+import searchengine.services.interfaces.JobService;
 import searchengine.services.interfaces.SearchService;
 import searchengine.services.interfaces.SiteIndexingService;
 import searchengine.services.interfaces.StatisticsService;
 
 import java.io.IOException;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.when;
@@ -22,6 +28,7 @@ public class ApiControllerTest {
     private StatisticsService statisticsService;
     private SiteIndexingService siteIndexingService;
     private SearchService searchService;
+    private JobService jobService;
     private ApiController apiController;
 
     @BeforeEach
@@ -29,7 +36,8 @@ public class ApiControllerTest {
         statisticsService = Mockito.mock(StatisticsService.class);
         siteIndexingService = Mockito.mock(SiteIndexingService.class);
         searchService = Mockito.mock(SearchService.class);
-        apiController = new ApiController(statisticsService, siteIndexingService, searchService);
+        jobService = Mockito.mock(JobService.class);
+        apiController = new ApiController(statisticsService, siteIndexingService, searchService, jobService);
     }
 
     @Test
@@ -54,6 +62,74 @@ public class ApiControllerTest {
         assertEquals(response, result.getBody());
     }
 
+    @Test
+    @DisplayName("Продолжение индексирования — возвращает IndexResponse")
+    void testResumeIndexing() {
+        IndexResponse response = new IndexResponse();
+        when(siteIndexingService.resumeIndexing()).thenReturn(response);
+
+        ResponseEntity<IndexResponse> result = apiController.resumeIndexing();
+
+        assertEquals(response, result.getBody());
+    }
+
+    @Test
+    @DisplayName("Состояние хостов — возвращает список HostHealthDto")
+    void testHosts() {
+        List<HostHealthDto> response = List.of(new HostHealthDto());
+        when(siteIndexingService.getHostHealth()).thenReturn(response);
+
+        ResponseEntity<List<HostHealthDto>> result = apiController.hosts();
+
+        assertEquals(response, result.getBody());
+    }
+
+    @Test
+    @DisplayName("Очереди стадий — возвращает список PipelineStageDto")
+    void testPipeline() {
+        List<PipelineStageDto> response = List.of(new PipelineStageDto());
+        when(siteIndexingService.getPipelineStages()).thenReturn(response);
+
+        ResponseEntity<List<PipelineStageDto>> result = apiController.pipeline();
+
+        assertEquals(response, result.getBody());
+    }
+
+    @Test
+    @DisplayName("Пауза обхода одного сайта — возвращает IndexResponse")
+    void testPauseSite() {
+        String url = "https://example.com";
+        IndexResponse response = new IndexResponse();
+        when(siteIndexingService.pauseSiteIndexing(url)).thenReturn(response);
+
+        ResponseEntity<IndexResponse> result = apiController.pauseSite(url);
+
+        assertEquals(response, result.getBody());
+    }
+
+    @Test
+    @DisplayName("Состояние обхода — возвращает CrawlerStateDto")
+    void testCrawler() {
+        CrawlerStateDto response = new CrawlerStateDto();
+        when(siteIndexingService.getCrawlerState()).thenReturn(response);
+
+        ResponseEntity<CrawlerStateDto> result = apiController.crawler();
+
+        assertEquals(response, result.getBody());
+    }
+
+    @Test
+    @DisplayName("Отмена загрузки — возвращает IndexResponse")
+    void testCancelFetch() {
+        String url = "https://example.com/slow";
+        IndexResponse response = new IndexResponse();
+        when(siteIndexingService.cancelFetch(url)).thenReturn(response);
+
+        ResponseEntity<IndexResponse> result = apiController.cancelFetch(url);
+
+        assertEquals(response, result.getBody());
+    }
+
     @Test
     @DisplayName("Остановка индексирования — возвращает IndexResponse")
     void testStopIndexing() {
@@ -91,4 +167,27 @@ public class ApiControllerTest {
 
         assertEquals(response, result.getBody());
     }
+
+    @Test
+    @DisplayName("Постановка задания в очередь — передаёт тип, адреса и приоритет в JobService")
+    void testSubmitJob() {
+        JobResponse response = new JobResponse();
+        List<String> urls = List.of("https://example.com/a", "https://example.com/b");
+        when(jobService.submit("PAGES", urls, 3)).thenReturn(response);
+
+        ResponseEntity<JobResponse> result = apiController.submitJob("PAGES", urls, 3);
+
+        assertEquals(response, result.getBody());
+    }
+
+    @Test
+    @DisplayName("Отмена задания — возвращает IndexResponse")
+    void testCancelJob() {
+        IndexResponse response = new IndexResponse();
+        when(jobService.cancel(7)).thenReturn(response);
+
+        ResponseEntity<IndexResponse> result = apiController.cancelJob(7);
+
+        assertEquals(response, result.getBody());
+    }
 }
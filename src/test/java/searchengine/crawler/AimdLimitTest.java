@@ -0,0 +1,82 @@
+package searchengine.crawler;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import searchengine.config.CrawlerSettings;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AimdLimitTest {
+
+    private static final long MS = 1_000_000L;
+
+    private AimdLimit newLimit() {
+        CrawlerSettings.Concurrency settings = new CrawlerSettings.Concurrency();
+        settings.setFloor(1);
+        settings.setCeiling(6);
+        settings.setInitial(2);
+        settings.setWindow(10);
+        settings.setLatencyTarget(Duration.ofMillis(500));
+        return new AimdLimit(settings);
+    }
+
+    @Test
+    @DisplayName("Быстрые ответы увеличивают лимит на 1 за окно, но не выше ceiling")
+    void onResponse_ShouldIncreaseAdditivelyUpToCeiling() {
+        AimdLimit limit = newLimit();
+        for (int i = 0; i < 10; i++) limit.onResponse(50 * MS);
+        assertEquals(3, limit.limit());
+
+        for (int i = 0; i < 200; i++) limit.onResponse(50 * MS);
+        assertEquals(6, limit.limit());
+    }
+
+    @Test
+    @DisplayName("Рост p90 задержки и 429 уменьшают лимит вдвое, но не ниже floor")
+    void slowResponsesAndThrottling_ShouldDecreaseMultiplicatively() {
+        AimdLimit limit = newLimit();
+        for (int i = 0; i < 100; i++) limit.onResponse(50 * MS);
+        assertEquals(6, limit.limit());
+
+        for (int i = 0; i < 10; i++) limit.onResponse(900 * MS);
+        assertEquals(3, limit.limit());
+
+        limit.onThrottled();
+        assertEquals(1, limit.limit());
+        limit.onThrottled();
+        assertEquals(1, limit.limit());
+    }
+
+    @Test
+    @DisplayName("Разрешений выдаётся не больше текущего лимита")
+    void tryAcquire_ShouldRespectLimit() {
+        AimdLimit limit = newLimit();
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        limit.release();
+        assertTrue(limit.tryAcquire());
+        assertEquals(2, limit.inFlight());
+    }
+
+    @Test
+    @DisplayName("Отказ в разрешении запоминает ожидающего, и возврат разрешения будит его один раз")
+    void release_ShouldWakeWaiterOnce() {
+        AimdLimit limit = newLimit();
+        AtomicInteger woken = new AtomicInteger();
+        Runnable waiter = woken::incrementAndGet;
+        assertTrue(limit.tryAcquire(waiter));
+        assertTrue(limit.tryAcquire(waiter));
+        assertFalse(limit.tryAcquire(waiter));
+        assertFalse(limit.tryAcquire(waiter));
+
+        limit.release();
+        limit.release();
+
+        assertEquals(1, woken.get());
+        assertEquals(0, limit.inFlight());
+    }
+}
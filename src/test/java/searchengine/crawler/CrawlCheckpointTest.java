@@ -0,0 +1,66 @@
+package searchengine.crawler;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import searchengine.model.CrawlCheckpointEntity;
+import searchengine.model.SiteEntity;
+import searchengine.repositories.CrawlCheckpointRepository;
+import searchengine.utils.UrlCanonicalizer;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CrawlCheckpointTest {
+
+    private static final CrawlRequest PAGE = new CrawlRequest("https://example.com/a", "example.com", 1, false);
+
+    @Test
+    @DisplayName("Адрес, допущенный и завершённый в одной пачке, не записывается, но удаляется")
+    @SuppressWarnings("unchecked")
+    void flush_ShouldSkipAndDeleteCompletedInSameBatch() {
+        CrawlCheckpointRepository repository = mock(CrawlCheckpointRepository.class);
+        CrawlCheckpoint checkpoint = new CrawlCheckpoint(site(), repository);
+
+        checkpoint.admitted(PAGE);
+        checkpoint.admitted(PAGE);
+        checkpoint.completed(PAGE);
+        checkpoint.flush();
+
+        verify(repository, never()).saveAll(anyList());
+        ArgumentCaptor<Collection<Long>> deleted = ArgumentCaptor.forClass(Collection.class);
+        verify(repository).deleteBySiteIdAndUrlHashIn(eq(1), deleted.capture());
+        assertEquals(List.of(UrlCanonicalizer.fingerprint(PAGE.url())), List.copyOf(deleted.getValue()));
+    }
+
+    @Test
+    @DisplayName("Адрес из прошлой пачки удаляется после завершения, повторный допуск пишется один раз")
+    @SuppressWarnings("unchecked")
+    void flush_ShouldDeleteRowSavedByEarlierBatch() {
+        CrawlCheckpointRepository repository = mock(CrawlCheckpointRepository.class);
+        CrawlCheckpoint checkpoint = new CrawlCheckpoint(site(), repository);
+
+        checkpoint.admitted(PAGE);
+        checkpoint.admitted(PAGE);
+        checkpoint.flush();
+        ArgumentCaptor<List<CrawlCheckpointEntity>> saved = ArgumentCaptor.forClass(List.class);
+        verify(repository).saveAll(saved.capture());
+        assertEquals(1, saved.getValue().size());
+
+        checkpoint.completed(PAGE);
+        checkpoint.flush();
+        verify(repository).deleteBySiteIdAndUrlHashIn(1, List.of(UrlCanonicalizer.fingerprint(PAGE.url())));
+    }
+
+    private static SiteEntity site() {
+        SiteEntity site = new SiteEntity();
+        site.setId(1);
+        site.setUrl("https://example.com");
+        return site;
+    }
+}
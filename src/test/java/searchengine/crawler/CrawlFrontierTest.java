@@ -0,0 +1,335 @@
+package searchengine.crawler;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import searchengine.config.CrawlerSettings;
+import searchengine.exceptions.IndexingInterruptedException;
+import searchengine.utils.UrlCanonicalizer;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CrawlFrontierTest {
+
+    private final HostRateLimiter rateLimiter = new HostRateLimiter();
+
+    private static final Map<String, List<String>> LINKS = Map.of(
+            "https://example.com/", List.of("https://example.com/a", "https://example.com/b", "https://example.com/a/"),
+            "https://example.com/a", List.of("https://example.com/", "https://example.com/b", "https://example.com/c"),
+            "https://example.com/b", List.of("https://example.com/a", "https://example.com/c"),
+            "https://example.com/c", List.of("https://example.com/")
+    );
+
+    @Test
+    @DisplayName("Каждый нормализованный путь обрабатывается ровно один раз")
+    void admit_ShouldFetchEveryPathOnce() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        Map<String, AtomicInteger> fetched = new ConcurrentHashMap<>();
+        CrawlFrontier frontier = new CrawlFrontier(executor, 4, CrawlFrontierTest::key, rateLimiter);
+
+        frontier.start("https://example.com/", request -> {
+            fetched.computeIfAbsent(request.url(), k -> new AtomicInteger()).incrementAndGet();
+            LINKS.getOrDefault(request.url(), List.of())
+                    .forEach(link -> frontier.admit(link, request.depth() + 1, false));
+        });
+        frontier.await();
+        executor.shutdown();
+
+        assertEquals(4, fetched.size());
+        fetched.values().forEach(count -> assertEquals(1, count.get()));
+        assertEquals(4, frontier.visitedCount());
+        assertEquals(0, frontier.queuedCount());
+    }
+
+    @Test
+    @DisplayName("Ошибка на корневой странице завершает обход с ошибкой")
+    void await_ShouldRethrow_WhenRootFails() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CrawlFrontier frontier = new CrawlFrontier(executor, 1, CrawlFrontierTest::key, rateLimiter);
+
+        frontier.start("https://example.com/", request -> {
+            throw new IllegalStateException("boom");
+        });
+
+        assertThrows(IllegalStateException.class, frontier::await);
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Продолжение с контрольной точки не обрабатывает уже сохранённые страницы")
+    void restore_ShouldSkipVisitedPages() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Map<String, AtomicInteger> fetched = new ConcurrentHashMap<>();
+        Set<String> admitted = ConcurrentHashMap.newKeySet();
+        Set<String> completed = ConcurrentHashMap.newKeySet();
+        CrawlFrontier frontier = new CrawlFrontier(executor, 2, CrawlFrontierTest::key, rateLimiter);
+        frontier.setJournal(new CrawlJournal() {
+            @Override
+            public void admitted(CrawlRequest request) {
+                admitted.add(request.url());
+            }
+
+            @Override
+            public void completed(CrawlRequest request) {
+                completed.add(request.url());
+            }
+        });
+        frontier.markVisited(List.of(key("https://example.com/"), key("https://example.com/a")));
+
+        frontier.start("https://example.com/", request -> {
+            fetched.computeIfAbsent(request.url(), k -> new AtomicInteger()).incrementAndGet();
+            LINKS.getOrDefault(request.url(), List.of())
+                    .forEach(link -> frontier.admit(link, request.depth() + 1, false));
+        }, () -> frontier.restore(new CrawlRequest("https://example.com/b", "example.com", 1, false)));
+        frontier.await();
+        executor.shutdown();
+
+        assertEquals(Set.of("https://example.com/b", "https://example.com/c"), fetched.keySet());
+        assertEquals(Set.of("https://example.com/c"), admitted);
+        assertEquals(Set.of("https://example.com/b", "https://example.com/c"), completed);
+    }
+
+    @Test
+    @DisplayName("Очередь выдаёт страницы по рангу политики и соблюдает предел страниц")
+    void admit_ShouldServeByRankWithinPageBudget() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        List<String> order = new CopyOnWriteArrayList<>();
+        CrawlFrontier frontier = new CrawlFrontier(executor, 1, CrawlFrontierTest::key, rateLimiter);
+        frontier.setPolicy(new CrawlPolicy(2, 4, List.of(), List.of("/tag/"), CrawlPriority.SHALLOW_PATH, List.of()));
+
+        frontier.start("https://example.com/", request -> {
+            order.add(request.url());
+            if (request.depth() == 0) {
+                List.of("https://example.com/news/2024/story", "https://example.com/tag/sport",
+                                "https://example.com/news", "https://example.com/news/2024", "https://example.com/about")
+                        .forEach(link -> frontier.admit(link, 1, false));
+            } else {
+                frontier.admit(request.url() + "/deeper", request.depth() + 1, false);
+            }
+        });
+        frontier.await();
+        executor.shutdown();
+
+        assertEquals(List.of("https://example.com/", "https://example.com/news",
+                "https://example.com/news/2024", "https://example.com/news/2024/story"), order);
+        assertEquals(0, frontier.queuedCount());
+    }
+
+    @Test
+    @DisplayName("Обход не завершается и не пишет журнал, пока переданная стадии страница не обработана")
+    void handOff_ShouldDelayCompletionAndJournal() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        List<CrawlFrontier.Handoff> handoffs = new CopyOnWriteArrayList<>();
+        Set<String> completed = ConcurrentHashMap.newKeySet();
+        CrawlFrontier frontier = new CrawlFrontier(executor, 1, CrawlFrontierTest::key, rateLimiter);
+        frontier.setJournal(new CrawlJournal() {
+            @Override
+            public void admitted(CrawlRequest request) {
+            }
+
+            @Override
+            public void completed(CrawlRequest request) {
+                completed.add(request.url());
+            }
+        });
+
+        frontier.start("https://example.com/", request -> handoffs.add(frontier.handOff(request)));
+
+        assertFalse(frontier.await(200, TimeUnit.MILLISECONDS));
+        assertTrue(completed.isEmpty());
+        handoffs.get(0).complete();
+        assertTrue(frontier.await(1, TimeUnit.SECONDS));
+        assertEquals(Set.of("https://example.com/"), completed);
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Зависшая задача попадает в отчёт один раз, а после отмены обход завершается без ошибки")
+    void cancelTask_ShouldInterruptStuckFetch() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch started = new CountDownLatch(1);
+        CrawlFrontier frontier = new CrawlFrontier(executor, 1, CrawlFrontierTest::key, rateLimiter);
+
+        frontier.start("https://example.com/", request -> {
+            if (request.depth() == 0) {
+                frontier.admit("https://example.com/a", 1, false);
+                return;
+            }
+            started.countDown();
+            try {
+                frontier.fetch(CrawlFrontierTest::hangingFetch);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        List<CrawlFrontier.InFlight> stuck = frontier.stuck(0);
+        assertEquals(1, stuck.size());
+        assertEquals("https://example.com/a", stuck.get(0).request().url());
+        assertTrue(frontier.stuck(0).isEmpty());
+
+        assertTrue(frontier.cancelTask("https://example.com/a"));
+        assertTrue(frontier.await(5, TimeUnit.SECONDS));
+        assertFalse(executor.submit(() -> Thread.currentThread().isInterrupted()).get());
+        assertFalse(frontier.cancelTask("https://example.com/a"));
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Пауза прерывает загрузку и возвращает её в очередь, продолжение обходит страницу заново")
+    void pause_ShouldRequeueInFlightFetchUntilResume() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch started = new CountDownLatch(1);
+        Map<String, AtomicInteger> attempts = new ConcurrentHashMap<>();
+        Set<String> completed = ConcurrentHashMap.newKeySet();
+        CrawlFrontier frontier = new CrawlFrontier(executor, 1, CrawlFrontierTest::key, rateLimiter);
+        frontier.setJournal(new CrawlJournal() {
+            @Override
+            public void admitted(CrawlRequest request) {
+            }
+
+            @Override
+            public void completed(CrawlRequest request) {
+                completed.add(request.url());
+            }
+        });
+
+        frontier.start("https://example.com/", request -> {
+            if (request.depth() == 0) {
+                frontier.admit("https://example.com/a", 1, false);
+                return;
+            }
+            if (attempts.computeIfAbsent(request.url(), k -> new AtomicInteger()).incrementAndGet() == 1) {
+                started.countDown();
+                try {
+                    frontier.fetch(CrawlFrontierTest::hangingFetch);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        frontier.pause();
+        assertFalse(frontier.await(300, TimeUnit.MILLISECONDS));
+        assertEquals(1, frontier.queuedCount());
+        assertFalse(completed.contains("https://example.com/a"));
+
+        frontier.resume();
+        assertTrue(frontier.await(5, TimeUnit.SECONDS));
+        assertEquals(2, attempts.get("https://example.com/a").get());
+        assertTrue(completed.contains("https://example.com/a"));
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Пауза не прерывает задачу вне HTTP-загрузки: задача сама останавливается в точке проверки")
+    void pause_ShouldNotInterruptTaskOutsideFetch() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch dbCall = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        Map<String, AtomicInteger> attempts = new ConcurrentHashMap<>();
+        CrawlFrontier frontier = new CrawlFrontier(executor, 1, CrawlFrontierTest::key, rateLimiter);
+
+        frontier.start("https://example.com/", request -> {
+            if (request.depth() == 0) {
+                frontier.admit("https://example.com/a", 1, false);
+                return;
+            }
+            if (attempts.computeIfAbsent(request.url(), k -> new AtomicInteger()).incrementAndGet() == 1) {
+                started.countDown();
+                // «запрос к БД»: ждёт, не реагируя на прерывание
+                while (dbCall.getCount() > 0) {
+                    interrupted.compareAndSet(false, Thread.currentThread().isInterrupted());
+                    Thread.onSpinWait();
+                }
+                if (frontier.isTaskCancelled()) {
+                    throw new IndexingInterruptedException("Обход приостановлен");
+                }
+            }
+        });
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        frontier.pause();
+        dbCall.countDown();
+        assertFalse(frontier.await(300, TimeUnit.MILLISECONDS));
+        assertFalse(interrupted.get());
+        assertEquals(1, frontier.queuedCount());
+
+        frontier.resume();
+        assertTrue(frontier.await(5, TimeUnit.SECONDS));
+        assertEquals(2, attempts.get("https://example.com/a").get());
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Обход, упёршийся в лимит общего хоста, просыпается, когда другой обход возвращает разрешение")
+    void hostPermits_ShouldWakeFrontier_WhenOtherCrawlReleasesPermit() throws Exception {
+        CrawlerSettings settings = new CrawlerSettings();
+        settings.getConcurrency().setFloor(1);
+        settings.getConcurrency().setInitial(1);
+        settings.getConcurrency().setCeiling(1);
+        HostHealthRegistry permits = new HostHealthRegistry(settings);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        CrawlFrontier first = new CrawlFrontier(executor, 1, CrawlFrontierTest::key, rateLimiter);
+        CrawlFrontier second = new CrawlFrontier(executor, 1, CrawlFrontierTest::key, rateLimiter);
+        first.setHostPermits(permits);
+        second.setHostPermits(permits);
+
+        first.start("https://example.com/", request -> {
+            holding.countDown();
+            try {
+                done.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+        AtomicBoolean fetched = new AtomicBoolean();
+        second.start("https://example.com/other", request -> fetched.set(true));
+        assertFalse(second.await(200, TimeUnit.MILLISECONDS));
+        assertFalse(fetched.get());
+
+        done.countDown();
+        assertTrue(first.await(5, TimeUnit.SECONDS));
+        assertTrue(second.await(5, TimeUnit.SECONDS));
+        assertTrue(fetched.get());
+        executor.shutdown();
+    }
+
+    @AfterEach
+    void tearDown() {
+        rateLimiter.shutdown();
+    }
+
+    private static String hangingFetch() throws IOException {
+        try {
+            Thread.sleep(60_000);
+            return "";
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException("Загрузка прервана");
+        }
+    }
+
+        private static long key(String url) {
+        return UrlCanonicalizer.fingerprint(UrlCanonicalizer.canonicalUrl(url));
+    }
+}
@@ -0,0 +1,110 @@
+package searchengine.crawler;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import searchengine.config.CrawlerSettings;
+import searchengine.exceptions.HostUnavailableException;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HostHealthTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private HostHealth newHealth() {
+        CrawlerSettings.Retry retry = new CrawlerSettings.Retry();
+        retry.setBaseDelay(Duration.ofSeconds(1));
+        retry.setMaxDelay(Duration.ofSeconds(8));
+        CrawlerSettings.Circuit circuit = new CrawlerSettings.Circuit();
+        circuit.setFailureThreshold(3);
+        circuit.setOpenDuration(Duration.ofSeconds(30));
+        circuit.setMaxTrips(2);
+        return new HostHealth("example.com", retry, circuit);
+    }
+
+    @Test
+    @DisplayName("Пауза после ошибок растёт экспоненциально и ограничена сверху, джиттер — от d/2 до d")
+    void backoff_ShouldGrowExponentiallyWithJitter() {
+        HostHealth health = newHealth();
+        for (int i = 0; i < 100; i++) {
+            long first = health.backoffNanos(1);
+            long third = health.backoffNanos(3);
+            long capped = health.backoffNanos(10);
+            assertTrue(first >= SECOND / 2 && first <= SECOND);
+            assertTrue(third >= 2 * SECOND && third <= 4 * SECOND);
+            assertTrue(capped >= 4 * SECOND && capped <= 8 * SECOND);
+        }
+    }
+
+    @Test
+    @DisplayName("Цепь размыкается после серии ошибок, пропускает одну пробу и замыкается после успеха")
+    void circuit_ShouldOpenProbeAndClose() throws HostUnavailableException {
+        HostHealth health = newHealth();
+        long now = 0;
+        for (int i = 0; i < 3; i++) {
+            health.beforeRequest(now);
+            health.onFailure(now, 1_000_000);
+        }
+        assertEquals(HostHealth.State.OPEN, health.state());
+        assertEquals(30 * SECOND, health.delayNanos(now));
+        assertThrows(HostUnavailableException.class, () -> health.beforeRequest(0));
+
+        now = 30 * SECOND;
+        health.beforeRequest(now);
+        assertEquals(HostHealth.State.HALF_OPEN, health.state());
+        long probeTime = now;
+        assertThrows(HostUnavailableException.class, () -> health.beforeRequest(probeTime));
+
+        health.onSuccess(1_000_000);
+        assertEquals(HostHealth.State.CLOSED, health.state());
+        assertEquals(0, health.delayNanos(now));
+    }
+
+    @Test
+    @DisplayName("Прерванная проба освобождается: следующий запрос снова проба, и после успеха цепь замыкается")
+    void onAbandoned_ShouldReleaseProbe() throws HostUnavailableException {
+        HostHealth health = newHealth();
+        for (int i = 0; i < 3; i++) {
+            health.onFailure(0, 1_000_000);
+        }
+        health.beforeRequest(30 * SECOND);
+        health.onAbandoned();
+
+        assertEquals(HostHealth.State.HALF_OPEN, health.state());
+        assertEquals(0, health.delayNanos(30 * SECOND));
+        health.beforeRequest(30 * SECOND);
+        health.onSuccess(1_000_000);
+        assertEquals(HostHealth.State.CLOSED, health.state());
+    }
+
+    @Test
+    @DisplayName("После max-trips неудачных проб хост пропускается до конца обхода")
+    void circuit_ShouldGiveUpAfterMaxTrips() throws HostUnavailableException {
+        HostHealth health = newHealth();
+        for (int i = 0; i < 3; i++) {
+            health.onFailure(0, 1_000_000);
+        }
+        health.beforeRequest(30 * SECOND);
+        health.onFailure(30 * SECOND, 1_000_000);
+
+        assertEquals(HostHealth.State.DEAD, health.state());
+        assertEquals(0, health.delayNanos(30 * SECOND));
+        HostUnavailableException e = assertThrows(HostUnavailableException.class, () -> health.beforeRequest(0));
+        assertTrue(e.isPermanent());
+    }
+
+    @Test
+    @DisplayName("429 с Retry-After задерживает хост на указанное время и уменьшает лимит параллельных запросов")
+    void onThrottled_ShouldHonorRetryAfter() {
+        HostHealth health = newHealth();
+        health.limit().tryAcquire();
+        int before = health.limit().limit();
+
+        health.onThrottled(0, 1_000_000, Duration.ofSeconds(20));
+
+        assertEquals(20 * SECOND, health.delayNanos(0));
+        assertTrue(health.limit().limit() < before);
+    }
+}
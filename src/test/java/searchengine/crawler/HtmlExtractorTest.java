@@ -0,0 +1,67 @@
+package searchengine.crawler;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import searchengine.config.CrawlerSettings;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HtmlExtractorTest {
+
+    private static final String HTML = """
+            <!doctype html>
+            <html><head><title>Новости</title><style>p { color: red }</style></head>
+            <body>
+              <div>Вступление <p>Первый <b>абзац</b></p><p>Второй</p>итог</div>
+              <script>var hidden = 1;</script>
+              <a href="/news/1?x=1">ссылка</a><br>после <a>без адреса</a>
+            </body></html>
+            """;
+
+    @Test
+    @DisplayName("Извлекаются заголовок, видимый текст в порядке документа и абсолютные ссылки")
+    void extract_ShouldCollectTitleTextAndLinks() {
+        PageContent content = HtmlExtractor.extract(HTML, "https://example.com/");
+
+        assertEquals("Новости", content.title());
+        assertEquals("Вступление Первый абзац Второй итог ссылка после без адреса", content.text());
+        assertEquals(List.of("https://example.com/news/1?x=1"), content.links());
+    }
+
+    @Test
+    @DisplayName("Кодировка без Content-Type определяется по meta charset")
+    void extract_ShouldSniffMetaCharset() throws IOException {
+        String html = "<html><head><meta charset=\"windows-1251\"><title>Привет</title></head><body>мир</body></html>";
+        byte[] bytes = html.getBytes(Charset.forName("windows-1251"));
+
+        PageContent content = HtmlExtractor.extract(new ByteArrayInputStream(bytes), null, "https://example.com/");
+
+        assertEquals("Привет", content.title());
+        assertEquals("мир", content.text());
+    }
+
+    @Test
+    @DisplayName("Тело больше буфера из пула декодируется без потерь на границах буфера, буфер возвращается в пул")
+    void extract_ShouldDecodeAcrossPooledBufferBoundaries() throws IOException {
+        CrawlerSettings settings = new CrawlerSettings();
+        settings.getBuffers().setBufferSize(DataSize.ofKilobytes(1));
+        BufferPool pool = new BufferPool(settings);
+        String words = "ёжик в тумане ".repeat(500).trim();
+        byte[] bytes = ("\uFEFF<p>" + words + "</p>").getBytes(StandardCharsets.UTF_8);
+
+        PageContent first = HtmlExtractor.extract(new ByteArrayInputStream(bytes), null, "https://example.com/", pool);
+        PageContent second = HtmlExtractor.extract(new ByteArrayInputStream(bytes), "utf-8", "https://example.com/", pool);
+
+        assertEquals(words, first.text());
+        assertEquals(words, second.text().replace("\uFEFF", "").trim());
+        assertEquals(1, pool.allocatedBuffers());
+        assertEquals(1, pool.reusedBuffers());
+    }
+}
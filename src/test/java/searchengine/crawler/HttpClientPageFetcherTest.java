@@ -0,0 +1,111 @@
+package searchengine.crawler;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import searchengine.config.CrawlerSettings;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpClientPageFetcherTest {
+
+    private HttpServer server;
+    private HttpClientPageFetcher fetcher;
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        respond("/page", 200, "text/html; charset=utf-8", "<title>Тест</title><p>текст <a href=\"/next\">далее</a>");
+        respond("/missing", 404, "text/html", "<p>не найдено</p>");
+        respond("/file", 200, "application/pdf", "%PDF-1.4");
+        respond("/big", 200, "text/html", "<p>" + "слово ".repeat(1000) + "</p>");
+        respondChunked("/chunked", "<p>" + "слово ".repeat(10) + "</p>");
+        respondChunked("/chunked-big", "<p>" + "слово ".repeat(1000) + "</p>");
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        CrawlerSettings settings = new CrawlerSettings();
+        settings.setMaxBodySize(DataSize.ofKilobytes(1));
+        fetcher = new HttpClientPageFetcher(settings, new BufferPool(settings));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("HTML-страница разбирается в заголовок, текст и ссылки")
+    void fetch_ShouldExtractHtml() throws IOException {
+        FetchResult result = fetcher.fetch(baseUrl + "/page");
+
+        assertTrue(result.hasContent());
+        assertEquals("Тест", result.content().title());
+        assertEquals("текст далее", result.content().text());
+        assertEquals(baseUrl + "/next", result.content().links().get(0));
+    }
+
+    @Test
+    @DisplayName("Тело не 2xx-ответа и не HTML не читается")
+    void fetch_ShouldSkipErrorAndBinaryBodies() throws IOException {
+        FetchResult missing = fetcher.fetch(baseUrl + "/missing");
+        FetchResult file = fetcher.fetch(baseUrl + "/file");
+
+        assertEquals(404, missing.statusCode());
+        assertFalse(missing.isSuccess());
+        assertFalse(missing.hasContent());
+        assertTrue(file.isSuccess());
+        assertFalse(file.hasContent());
+    }
+
+    @Test
+    @DisplayName("Тело с Content-Length больше лимита не читается")
+    void fetch_ShouldSkipOversizedBody() throws IOException {
+        FetchResult big = fetcher.fetch(baseUrl + "/big");
+
+        assertTrue(big.isSuccess());
+        assertFalse(big.hasContent());
+    }
+
+    @Test
+    @DisplayName("Тело без Content-Length больше лимита не индексируется обрезанным, тело в пределах лимита читается")
+    void fetch_ShouldSkipOversizedChunkedBody() throws IOException {
+        FetchResult small = fetcher.fetch(baseUrl + "/chunked");
+        FetchResult big = fetcher.fetch(baseUrl + "/chunked-big");
+
+        assertTrue(small.hasContent());
+        assertTrue(big.isSuccess());
+        assertFalse(big.hasContent());
+    }
+
+    private void respond(String path, int status, String contentType, String body) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        server.createContext(path, exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", contentType);
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+    }
+
+    private void respondChunked(String path, String body) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        server.createContext(path, exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "text/html");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+    }
+}
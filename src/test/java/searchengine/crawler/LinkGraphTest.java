@@ -0,0 +1,53 @@
+package searchengine.crawler;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LinkGraphTest {
+
+    @Test
+    @DisplayName("PageRank: сумма рангов равна 1, страница, на которую ссылаются все, ранжируется выше")
+    void pageRank_ShouldFavourLinkedHub() {
+        int[][] adjacency = {
+                {1, 2, 3},
+                {0},
+                {0},
+                {0},
+                {}
+        };
+        double[] rank = LinkGraph.of(adjacency).pageRank(0.85, 100, 1e-9);
+
+        assertEquals(1.0, Arrays.stream(rank).sum(), 1e-9);
+        for (int v = 1; v < rank.length; v++) {
+            assertTrue(rank[0] > rank[v], "узел 0 должен быть выше узла " + v);
+        }
+        assertEquals(rank[1], rank[2], 1e-12);
+        assertTrue(rank[1] > rank[4], "страница без входящих ссылок получает только базовый ранг");
+    }
+
+    @Test
+    @DisplayName("PageRank: у симметричного цикла все ранги равны")
+    void pageRank_ShouldBeUniformOnCycle() {
+        int[][] cycle = {{1}, {2}, {3}, {0}};
+        double[] rank = LinkGraph.of(cycle).pageRank(0.85, 50, 1e-12);
+
+        for (double value : rank) {
+            assertEquals(0.25, value, 1e-9);
+        }
+    }
+
+    @Test
+    @DisplayName("Список id страниц упаковывается по 4 байта и восстанавливается без потерь")
+    void encode_ShouldRoundTrip() {
+        int[] ids = {1, 255, 65_536, Integer.MAX_VALUE};
+        byte[] packed = LinkGraph.encode(ids);
+
+        assertEquals(16, packed.length);
+        assertArrayEquals(ids, LinkGraph.decode(packed));
+        assertArrayEquals(new int[0], LinkGraph.decode(null));
+    }
+}
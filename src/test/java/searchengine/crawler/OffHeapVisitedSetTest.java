@@ -0,0 +1,73 @@
+package searchengine.crawler;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapVisitedSetTest {
+
+    @Test
+    @DisplayName("Ключ добавляется один раз, включая нулевой")
+    void add_ShouldRejectDuplicates() {
+        OffHeapVisitedSet set = new OffHeapVisitedSet(1024);
+
+        assertTrue(set.add(42));
+        assertFalse(set.add(42));
+        assertTrue(set.add(0));
+        assertFalse(set.add(0));
+        assertTrue(set.contains(42));
+        assertTrue(set.contains(0));
+        assertFalse(set.contains(7));
+        assertEquals(2, set.size());
+    }
+
+    @Test
+    @DisplayName("Бюджет памяти не превышается: после заполнения новые ключи не принимаются")
+    void add_ShouldStopAtMemoryBudget() {
+        OffHeapVisitedSet set = new OffHeapVisitedSet(128 * Long.BYTES);
+        int accepted = 0;
+        for (long key = 1; key <= 1000; key++) {
+            if (set.add(key)) accepted++;
+        }
+
+        assertEquals(set.capacity(), accepted);
+        assertEquals(96, accepted);
+        assertTrue(set.isFull());
+        assertTrue(set.contains(1));
+        assertFalse(set.contains(1000));
+    }
+
+    @Test
+    @DisplayName("Параллельные вставки одних и тех же ключей засчитываются ровно один раз")
+    void add_ShouldBeExactUnderContention() throws Exception {
+        OffHeapVisitedSet set = new OffHeapVisitedSet(1 << 20);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            results.add(executor.submit(() -> {
+                int added = 0;
+                for (long key = 1; key <= 50_000; key++) {
+                    if (set.add(key * 0x9E3779B97F4A7C15L)) added++;
+                }
+                return added;
+            }));
+        }
+        int total = 0;
+        for (Future<Integer> result : results) {
+            total += result.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(50_000, total);
+        assertEquals(50_000, set.size());
+    }
+}
@@ -0,0 +1,51 @@
+package searchengine.crawler;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import searchengine.dto.PipelineStageDto;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelineStageTest {
+
+    @Test
+    @DisplayName("При полной очереди submit ждёт, пока стадия не освободит место")
+    void submit_ShouldBlock_WhenQueueIsFull() throws InterruptedException {
+        PipelineStage stage = new PipelineStage("test", 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+        stage.submit(() -> {
+            running.countDown();
+            awaitQuietly(release);
+        });
+        assertTrue(running.await(1, TimeUnit.SECONDS));
+        stage.submit(() -> { });
+
+        CountDownLatch submitted = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            stage.submit(() -> { });
+            submitted.countDown();
+        });
+        producer.start();
+
+        assertFalse(submitted.await(200, TimeUnit.MILLISECONDS));
+        PipelineStageDto snapshot = stage.snapshot();
+        assertEquals(1, snapshot.getQueued());
+        assertEquals(1, snapshot.getActive());
+
+        release.countDown();
+        assertTrue(submitted.await(1, TimeUnit.SECONDS));
+        stage.shutdown();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
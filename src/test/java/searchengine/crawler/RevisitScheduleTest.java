@@ -0,0 +1,51 @@
+package searchengine.crawler;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import searchengine.config.CrawlerSettings;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RevisitScheduleTest {
+
+    private RevisitSchedule newSchedule() {
+        CrawlerSettings.Recrawl settings = new CrawlerSettings.Recrawl();
+        settings.setInitialInterval(Duration.ofHours(8));
+        settings.setMinInterval(Duration.ofMinutes(5));
+        settings.setMaxInterval(Duration.ofDays(2));
+        return RevisitSchedule.of(settings);
+    }
+
+    @Test
+    @DisplayName("Часто меняющаяся страница сходится к минимальному интервалу")
+    void next_ShouldShrinkToMinForChangingPage() {
+        RevisitSchedule schedule = newSchedule();
+        Duration interval = schedule.next(null, true);
+        assertEquals(Duration.ofHours(4), interval);
+
+        for (int i = 0; i < 20; i++) interval = schedule.next(interval, true);
+        assertEquals(Duration.ofMinutes(5), interval);
+    }
+
+    @Test
+    @DisplayName("Неизменная страница посещается всё реже, но не реже максимального интервала")
+    void next_ShouldGrowToMaxForStablePage() {
+        RevisitSchedule schedule = newSchedule();
+        Duration interval = schedule.next(null, false);
+        assertEquals(Duration.ofHours(12), interval);
+
+        for (int i = 0; i < 20; i++) interval = schedule.next(interval, false);
+        assertEquals(Duration.ofDays(2), interval);
+    }
+
+    @Test
+    @DisplayName("Некорректные множители отклоняются")
+    void constructor_ShouldRejectInvalidFactors() {
+        assertThrows(IllegalArgumentException.class, () -> new RevisitSchedule(Duration.ofHours(1),
+                Duration.ofMinutes(5), Duration.ofDays(1), 1.5, 1.5));
+        assertThrows(IllegalArgumentException.class, () -> new RevisitSchedule(Duration.ofHours(1),
+                Duration.ofDays(1), Duration.ofMinutes(5), 0.5, 1.5));
+    }
+}
@@ -0,0 +1,54 @@
+package searchengine.crawler;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RobotsRulesTest {
+
+    private static final String AGENT = "HeliontSearchBot/1.0 (+https://heliont.example.com/bot-info)";
+
+    private static final String ROBOTS = """
+            User-agent: *
+            Disallow: /search
+            Disallow: /*.php$
+            Allow: /search/help
+            Crawl-delay: 1.5
+
+            User-agent: Yandex
+            Disallow: /
+
+            Sitemap: https://example.com/sitemap.xml
+            """;
+
+    @Test
+    @DisplayName("Применяются правила группы '*', побеждает самое длинное правило")
+    void isAllowed_ShouldUseLongestMatch() {
+        RobotsRules rules = RobotsRules.parse(ROBOTS, AGENT);
+
+        assertTrue(rules.isAllowed("/news/1"));
+        assertFalse(rules.isAllowed("/search/results"));
+        assertTrue(rules.isAllowed("/search/help/faq"));
+        assertFalse(rules.isAllowed("/index.php"));
+        assertTrue(rules.isAllowed("/index.php5"));
+        assertEquals(Duration.ofMillis(1500), rules.getCrawlDelay());
+        assertEquals(List.of("https://example.com/sitemap.xml"), rules.getSitemaps());
+    }
+
+    @Test
+    @DisplayName("Группа для нашего робота заменяет группу '*'")
+    void isAllowed_ShouldPreferSpecificGroup() {
+        RobotsRules rules = RobotsRules.parse(ROBOTS + """
+                User-agent: HeliontSearchBot
+                Disallow: /private
+                """, AGENT);
+
+        assertTrue(rules.isAllowed("/search/results"));
+        assertFalse(rules.isAllowed("/private/data"));
+        assertNull(rules.getCrawlDelay());
+    }
+}
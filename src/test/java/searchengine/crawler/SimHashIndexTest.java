@@ -0,0 +1,56 @@
+package searchengine.crawler;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import searchengine.utils.SimHash;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimHashIndexTest {
+
+    private static final String MENU = "Главная Новости Россия Мир Бывший СССР Экономика Силовые структуры "
+            + "Наука и техника Культура Спорт Интернет и СМИ Ценности Путешествия Из жизни Среда Забота о себе ";
+
+    private static final String FOOTER = "Все права защищены. Любое использование материалов допускается только "
+            + "при наличии гиперссылки. Редакция не несёт ответственности за содержание рекламных материалов. ";
+
+    private static final String ARTICLE = MENU + "Центральный банк сохранил ключевую ставку на прежнем уровне, "
+            + "сообщила пресс-служба регулятора в пятницу. Аналитики ожидали именно такого решения, "
+            + "поскольку инфляция в последние месяцы замедлилась, а рост кредитования остаётся умеренным. "
+            + "Следующее заседание совета директоров по денежно-кредитной политике запланировано на октябрь. "
+            + "Эксперты отмечают, что решение регулятора поддержит рубль и снизит инфляционные ожидания, "
+            + "однако бизнес по-прежнему жалуется на дорогие кредиты и ждёт смягчения политики. " + FOOTER + MENU;
+
+    @Test
+    @DisplayName("Версия для печати с лишней строкой находится как почти-дубликат")
+    void findNear_ShouldReturnCanonicalPage_ForNearDuplicate() {
+        long original = SimHash.fingerprint(ARTICLE).orElseThrow();
+        long printVersion = SimHash.fingerprint(ARTICLE + " Версия для печати").orElseThrow();
+
+        SimHashIndex index = new SimHashIndex(3);
+        index.add(original, 1);
+
+        assertTrue(SimHash.distance(original, printVersion) <= 3);
+        assertEquals(1, index.findNear(printVersion));
+    }
+
+    @Test
+    @DisplayName("Разные страницы не считаются дубликатами")
+    void findNear_ShouldReturnNull_ForDifferentPage() {
+        long original = SimHash.fingerprint(ARTICLE).orElseThrow();
+        long other = SimHash.fingerprint("Сборная России по хоккею обыграла соперников в финале турнира, "
+                + "забросив три шайбы в третьем периоде. Главный тренер поблагодарил болельщиков за поддержку "
+                + "и отметил отличную игру вратаря, отразившего сорок бросков.").orElseThrow();
+
+        SimHashIndex index = new SimHashIndex(3);
+        index.add(original, 1);
+
+        assertNull(index.findNear(other));
+    }
+
+    @Test
+    @DisplayName("Слишком короткий текст не получает отпечаток")
+    void fingerprint_ShouldBeEmpty_ForShortText() {
+        assertTrue(SimHash.fingerprint("Главная страница").isEmpty());
+    }
+}
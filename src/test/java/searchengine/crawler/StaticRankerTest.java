@@ -0,0 +1,49 @@
+package searchengine.crawler;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import searchengine.config.CrawlerSettings;
+import searchengine.model.SiteEntity;
+import searchengine.repositories.PageRepository;
+import searchengine.repositories.PageRepositoryCustom.LinkGraphRow;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class StaticRankerTest {
+
+    @Test
+    @DisplayName("Почти-дубликат не становится вершиной: ссылки на него засчитываются канонической странице, ранги пишутся одной пачкой")
+    @SuppressWarnings("unchecked")
+    void rank_ShouldFoldDuplicatesAndWriteInBatch() {
+        SiteEntity site = new SiteEntity();
+        site.setId(1);
+        site.setUrl("https://example.com");
+        PageRepository pageRepository = mock(PageRepository.class);
+        when(pageRepository.findLinkVerticesBySiteId(1)).thenReturn(List.of(
+                new Object[]{10, "/", null},
+                new Object[]{20, "/a", null},
+                new Object[]{30, "/b", 20}));
+        when(pageRepository.findLinksBySiteIdAfter(eq(1), anyInt(), any())).thenReturn(List.of(
+                new Object[]{10, "https://example.com/a\nhttps://example.com/b\nhttps://other.com/"},
+                new Object[]{20, "https://example.com/\nhttps://example.com/a"}));
+        CrawlerSettings settings = new CrawlerSettings();
+
+        new StaticRanker(pageRepository, new CrawlBudget(settings), settings.getStaticRank()).rank(site);
+
+        ArgumentCaptor<List<LinkGraphRow>> written = ArgumentCaptor.forClass(List.class);
+        verify(pageRepository, times(1)).updateLinkGraphs(written.capture());
+        List<LinkGraphRow> rows = written.getValue();
+        assertEquals(List.of(10, 20), rows.stream().map(LinkGraphRow::pageId).toList());
+        assertArrayEquals(new int[]{20}, LinkGraph.decode(rows.get(0).outLinks()));
+        assertArrayEquals(new int[]{10}, LinkGraph.decode(rows.get(1).outLinks()));
+        assertEquals(2.0, rows.get(0).staticRank() + rows.get(1).staticRank(), 1e-4);
+        verify(pageRepository).clearDuplicateLinkGraph(1);
+    }
+}
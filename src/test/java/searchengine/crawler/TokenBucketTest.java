@@ -0,0 +1,37 @@
+package searchengine.crawler;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("Burst выдаётся сразу, затем возвращается время ожидания")
+    void tryAcquire_ShouldReturnWait_WhenBurstExhausted() {
+        TokenBucket bucket = new TokenBucket(2.0, 2, 0, 0);
+
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+
+        long wait = bucket.tryAcquire(0);
+        assertEquals(SECOND / 2, wait);
+        assertEquals(0, bucket.tryAcquire(wait));
+    }
+
+    @Test
+    @DisplayName("Минимальный интервал соблюдается даже при наличии токенов")
+    void tryAcquire_ShouldRespectMinGap() {
+        long gap = TimeUnit.MILLISECONDS.toNanos(300);
+        TokenBucket bucket = new TokenBucket(100.0, 10, gap, 0);
+
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(gap - 1000, bucket.tryAcquire(1000));
+        assertEquals(0, bucket.tryAcquire(gap));
+    }
+}
@@ -0,0 +1,62 @@
+package searchengine.crawler;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeightedSlotsTest {
+
+    @Test
+    @DisplayName("Свободные слоты можно занять сверх доли, пока никто не ждёт")
+    void tryAcquire_ShouldBorrowIdleSlots() {
+        WeightedSlots slots = new WeightedSlots(4);
+        WeightedSlots.Share first = slots.register("first", 1);
+        slots.register("second", 1);
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(first.tryAcquire());
+        }
+        assertFalse(first.tryAcquire());
+        assertEquals(4, slots.used());
+    }
+
+    @Test
+    @DisplayName("Освободившийся слот достаётся сайту, не выбравшему свою долю")
+    void release_ShouldPreferStarvingShare() {
+        WeightedSlots slots = new WeightedSlots(4);
+        WeightedSlots.Share heavy = slots.register("heavy", 3);
+        WeightedSlots.Share light = slots.register("light", 1);
+        AtomicInteger notified = new AtomicInteger();
+        light.onAvailable(notified::incrementAndGet);
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(heavy.tryAcquire());
+        }
+        assertFalse(light.tryAcquire());
+
+        heavy.release();
+        assertEquals(1, notified.get());
+        assertFalse(heavy.tryAcquire(), "доля heavy выбрана, а light ждёт");
+        assertTrue(light.tryAcquire());
+        assertEquals(3, heavy.used());
+        assertEquals(1, light.used());
+    }
+
+    @Test
+    @DisplayName("После закрытия доли её вес перестаёт учитываться")
+    void close_ShouldReturnWeight() {
+        WeightedSlots slots = new WeightedSlots(2);
+        WeightedSlots.Share first = slots.register("first", 1);
+        WeightedSlots.Share second = slots.register("second", 1);
+
+        assertTrue(second.tryAcquire());
+        second.release();
+        second.close();
+
+        assertTrue(first.tryAcquire());
+        assertTrue(first.tryAcquire());
+    }
+}
@@ -14,6 +14,7 @@ import searchengine.model.SiteEntity;
 import searchengine.model.Status;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -107,4 +108,25 @@ public class LemmaRepositoryTest {
         assertThat(newLemma).isPresent();
         assertThat(newLemma.get().getFrequency()).isEqualTo(2);
     }
+
+    @Test
+    @DisplayName("Пакетный upsert лемм: новые вставляются, существующие увеличивают частоту, id читаются одним запросом")
+    void testUpsertLemmas() {
+        lemmaRepository.upsertLemmas(testSite.getId(), List.of("alpha", "beta", "testLemma"));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<LemmaEntity> lemmas = lemmaRepository.findAllBySiteIdAndLemmaIn(testSite.getId(),
+                List.of("alpha", "beta", "testLemma"));
+        assertThat(lemmas).hasSize(3);
+        assertThat(lemmas).allMatch(lemma -> lemma.getId() != null);
+        assertThat(lemmas).filteredOn(lemma -> lemma.getLemma().equals("testLemma"))
+                .singleElement()
+                .extracting(LemmaEntity::getFrequency)
+                .isEqualTo(6);
+        assertThat(lemmas).filteredOn(lemma -> lemma.getLemma().equals("alpha"))
+                .singleElement()
+                .extracting(LemmaEntity::getFrequency)
+                .isEqualTo(1);
+    }
 }
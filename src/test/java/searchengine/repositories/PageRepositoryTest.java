@@ -11,6 +11,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 import searchengine.model.*;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -69,7 +70,7 @@ public class PageRepositoryTest {
         int code = 200;
         String content = "<html>content</html>";
 
-        pageRepository.upsertPage(path, testSite.getId(), code, content);
+        pageRepository.upsertPage(path, testSite.getId(), code, utf8(content), null, null, null, null, null, null, null);
 
         Optional<PageEntity> optionalPage = pageRepository.findByPathAndSiteId(path, testSite.getId());
         assertThat(optionalPage).isPresent();
@@ -81,7 +82,7 @@ public class PageRepositoryTest {
 
         String newContent = "<html>updated</html>";
         int newCode = 201;
-        pageRepository.upsertPage(path, testSite.getId(), newCode, newContent);
+        pageRepository.upsertPage(path, testSite.getId(), newCode, utf8(newContent), null, null, null, null, null, null, null);
 
         optionalPage = pageRepository.findByPathAndSiteId(path, testSite.getId());
         assertThat(optionalPage).isPresent();
@@ -92,8 +93,8 @@ public class PageRepositoryTest {
     @Test
     @DisplayName("Подсчет всех страниц по ID сайта")
     void testCountAllBySiteId() {
-        pageRepository.upsertPage("/p1", testSite.getId(), 200, "content1");
-        pageRepository.upsertPage("/p2", testSite.getId(), 200, "content2");
+        pageRepository.upsertPage("/p1", testSite.getId(), 200, utf8("content1"), null, null, null, null, null, null, null);
+        pageRepository.upsertPage("/p2", testSite.getId(), 200, utf8("content2"), null, null, null, null, null, null, null);
 
         int count = pageRepository.countAllBySiteId(testSite.getId());
         assertThat(count).isEqualTo(2);
@@ -102,7 +103,7 @@ public class PageRepositoryTest {
     @Test
     @DisplayName("Поиск всех страниц по ID леммы с постраничным выводом")
     void testFindAllByLemmaId() {
-        pageRepository.upsertPage("/page1", testSite.getId(), 200, "content");
+        pageRepository.upsertPage("/page1", testSite.getId(), 200, utf8("content"), null, null, null, null, null, null, null);
 
         PageEntity page = pageRepository.findByPathAndSiteId("/page1", testSite.getId()).orElseThrow();
 
@@ -116,4 +117,27 @@ public class PageRepositoryTest {
         assertThat(result.getTotalElements()).isEqualTo(1);
         assertThat(result.getContent().get(0).getId()).isEqualTo(page.getId());
     }
+
+    @Test
+    @DisplayName("Сохранение и обновление валидаторов страницы")
+    void testValidators() {
+        pageRepository.upsertPage("/cached", testSite.getId(), 200, utf8("content"), null, null, "\"v1\"",
+                "Wed, 21 Oct 2015 07:28:00 GMT", "abc", 42L, null);
+
+        PageEntity page = pageRepository.findByPathAndSiteId("/cached", testSite.getId()).orElseThrow();
+        assertThat(page.getEtag()).isEqualTo("\"v1\"");
+        assertThat(page.getContentHash()).isEqualTo("abc");
+
+        pageRepository.updateValidators(page.getId(), "\"v2\"", null);
+
+        page = pageRepository.findByPathAndSiteId("/cached", testSite.getId()).orElseThrow();
+        assertThat(page.getEtag()).isEqualTo("\"v2\"");
+        assertThat(page.getLastModified()).isNull();
+        assertThat(page.getContentHash()).isEqualTo("abc");
+        assertThat(pageRepository.findPathsBySiteId(testSite.getId())).containsExactly("/cached");
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
 }
@@ -0,0 +1,104 @@
+package searchengine.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import searchengine.config.CrawlerSettings;
+import searchengine.config.SitesList;
+import searchengine.dto.IndexResponse;
+import searchengine.dto.JobResponse;
+import searchengine.model.IndexingJobEntity;
+import searchengine.model.JobStatus;
+import searchengine.repositories.IndexingJobRepository;
+import searchengine.repositories.SiteRepository;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JobServiceImplTest {
+
+    @Mock
+    private IndexingJobRepository jobRepository;
+    @Mock
+    private SiteRepository siteRepository;
+    @Mock
+    private SiteIndexingServiceImpl indexingService;
+    @Mock
+    private SitesList sitesList;
+    @Mock
+    private CrawlerSettings crawlerSettings;
+
+    private JobServiceImpl jobService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        when(crawlerSettings.getJobs()).thenReturn(new CrawlerSettings.Jobs());
+        when(jobRepository.save(any())).thenAnswer(invocation -> {
+            IndexingJobEntity job = invocation.getArgument(0);
+            job.setId(1);
+            return job;
+        });
+        jobService = new JobServiceImpl(jobRepository, siteRepository, indexingService, sitesList, crawlerSettings);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Постановка задания: неизвестный тип и сайт вне конфигурации отклоняются")
+    void submit_ShouldRejectInvalidJobs() {
+        JobResponse unknown = jobService.submit("REINDEX", List.of(), null);
+        assertFalse(unknown.isResult());
+
+        when(indexingService.isConfigured("https://other.com")).thenReturn(false);
+        JobResponse site = jobService.submit("SITE", List.of("https://other.com"), null);
+        assertFalse(site.isResult());
+        assertEquals("Сайт не указан в конфигурации: https://other.com", site.getError());
+
+        verify(jobRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Задание на пачку страниц выполняется в пуле и завершается со статусом DONE")
+    void submit_ShouldRunPageBatch() throws IOException {
+        IndexResponse ok = new IndexResponse();
+        ok.setResult(true);
+        when(indexingService.indexPage(anyString())).thenReturn(ok);
+
+        JobResponse response = jobService.submit("pages", List.of("https://example.com/a", "https://example.com/b"), null);
+
+        assertTrue(response.isResult());
+        assertEquals(10, response.getJob().getPriority());
+        verify(jobRepository, timeout(2000)).markFinished(eq(1), eq(JobStatus.DONE), isNull(), any());
+        verify(indexingService).indexPage("https://example.com/a");
+        verify(indexingService).indexPage("https://example.com/b");
+        assertEquals(1, jobService.getStats().getDone());
+    }
+
+    @Test
+    @DisplayName("Ошибка загрузки одной страницы не прерывает пачку: остальные страницы индексируются, ошибка в итоге задания")
+    void submit_ShouldContinuePageBatch_WhenOnePageFails() throws IOException {
+        IndexResponse ok = new IndexResponse();
+        ok.setResult(true);
+        when(indexingService.indexPage("https://example.com/a")).thenReturn(ok);
+        when(indexingService.indexPage("https://example.com/b")).thenThrow(new IOException("Connection refused"));
+        when(indexingService.indexPage("https://example.com/c")).thenReturn(ok);
+
+        jobService.submit("PAGES", List.of("https://example.com/a", "https://example.com/b", "https://example.com/c"),
+                null);
+
+        verify(jobRepository, timeout(2000)).markFinished(eq(1), eq(JobStatus.FAILED),
+                eq("Не проиндексировано страниц: 1 из 3; https://example.com/b: Connection refused"), any());
+        verify(indexingService).indexPage("https://example.com/a");
+        verify(indexingService).indexPage("https://example.com/c");
+    }
+}
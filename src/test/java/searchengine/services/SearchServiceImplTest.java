@@ -7,6 +7,8 @@ import org.mockito.*;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import searchengine.config.CrawlerSettings;
 import searchengine.config.SitesList;
 import searchengine.dto.SearchResponse;
 import searchengine.model.LemmaEntity;
@@ -18,6 +20,7 @@ import searchengine.repositories.SearchIndexRepository;
 import searchengine.repositories.SiteRepository;
 
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -45,8 +48,8 @@ class SearchServiceImplTest {
                 pageRepository,
                 lemmaRepository,
                 indexRepository,
-                sites
-
+                sites,
+                new CrawlerSettings()
         );
     }
 
@@ -116,4 +119,43 @@ class SearchServiceImplTest {
         assertEquals(0, response.getCount());
     }
 
+    @Test
+    @DisplayName("Поиск оценивает только кандидатов с наибольшим статическим рангом и возвращает лучших из них")
+    void search_scoresOnlyTopRankedCandidates() {
+        ReflectionTestUtils.invokeMethod(searchService, "init");
+        SiteEntity siteEntity = new SiteEntity();
+        siteEntity.setId(1);
+        siteEntity.setUrl("https://skillbox.ru");
+        siteEntity.setName("Skillbox");
+        when(siteRepository.findByUrl("https://skillbox.ru")).thenReturn(siteEntity);
+
+        LemmaEntity lemma = new LemmaEntity();
+        lemma.setId(1);
+        lemma.setLemma("курс");
+        when(lemmaRepository.findMaxPercentageLemmaOnPagesBySiteId(1)).thenReturn(0.1);
+        when(lemmaRepository.findBySiteIdAndLemma(1, "курс")).thenReturn(Optional.of(lemma));
+        when(lemmaRepository.percentageLemmaOnPagesById(1)).thenReturn(0.01);
+        when(pageRepository.countAllByLemmaId(1)).thenReturn(100L);
+
+        List<PageEntity> candidates = new ArrayList<>();
+        for (int id = 1; id <= 10; id++) {
+            PageEntity page = new PageEntity();
+            page.setId(id);
+            page.setPath("/p" + id);
+            page.setTitle("Страница " + id);
+            page.setContent("Новый курс программирования");
+            candidates.add(page);
+            when(indexRepository.absoluteRelevanceByPageId(id)).thenReturn((double) id);
+        }
+        when(pageRepository.findAllByLemmaId(1, PageRequest.of(0, 10))).thenReturn(new PageImpl<>(candidates));
+
+        SearchResponse response = searchService.search("курс", "https://skillbox.ru", 0, 2);
+
+        assertTrue(response.isResult());
+        assertEquals(100, response.getCount());
+        assertEquals(List.of("/p10", "/p9"), response.getData().stream().map(d -> d.getUri()).toList());
+        assertEquals(1.0, response.getData().get(0).getRelevance());
+        verify(pageRepository).findAllByLemmaId(1, PageRequest.of(0, 10));
+        verify(indexRepository, never()).absoluteRelevanceByPageId(11);
+    }
 }
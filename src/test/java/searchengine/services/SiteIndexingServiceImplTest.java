@@ -4,15 +4,23 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import searchengine.config.CrawlerSettings;
 import searchengine.config.Site;
 import searchengine.config.SitesList;
+import searchengine.crawler.*;
 import searchengine.dto.IndexResponse;
 import searchengine.model.*;
 import searchengine.repositories.*;
+import searchengine.services.interfaces.PageService;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -23,6 +31,14 @@ class SiteIndexingServiceImplTest {
     private SiteRepository siteRepository;
     @Mock
     private SitesList sitesList;
+    @Mock
+    private CrawlCheckpointRepository checkpointRepository;
+    @Mock
+    private CrawlLeaseRepository leaseRepository;
+    @Mock
+    private CrawlerSettings crawlerSettings;
+
+    private final CrawlerSettings.Cluster cluster = new CrawlerSettings.Cluster();
 
     @InjectMocks
     private SiteIndexingServiceImpl siteIndexingService;
@@ -33,6 +49,7 @@ class SiteIndexingServiceImplTest {
 
         when(siteRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
         doNothing().when(siteRepository).deleteByUrl(anyString());
+        when(crawlerSettings.getCluster()).thenReturn(cluster);
     }
 
     @Test
@@ -65,6 +82,26 @@ class SiteIndexingServiceImplTest {
         assertEquals("Индексация не запущена", response.getError());
     }
 
+    @Test
+    @DisplayName("Продолжение индексации: возвращает ошибку, если все сайты уже проиндексированы")
+    void resumeIndexing_ShouldReturnError_WhenNothingToResume() {
+        Site site = new Site();
+        site.setUrl("https://example.com");
+        site.setName("Example");
+        SiteEntity indexed = new SiteEntity();
+        indexed.setId(1);
+        indexed.setStatus(Status.INDEXED);
+
+        when(sitesList.getSites()).thenReturn(List.of(site));
+        when(siteRepository.findByUrl("https://example.com")).thenReturn(indexed);
+
+        IndexResponse response = siteIndexingService.resumeIndexing();
+
+        assertFalse(response.isResult());
+        assertEquals("Нет прерванной индексации", response.getError());
+        verifyNoInteractions(checkpointRepository);
+    }
+
     @Test
     @DisplayName("Нормализация пути URL работает корректно")
     void normalizePath_ShouldNormalizeCorrectly() {
@@ -94,4 +131,123 @@ class SiteIndexingServiceImplTest {
         assertNotNull(response.getError());
         assertTrue(response.getError().toLowerCase().contains("находится за пределами сайтов, указанных в конфигурации"));
     }
+
+    @Test
+    @DisplayName("Запуск одного сайта: возвращает ошибку, если сайта нет в конфигурации")
+    void startSiteIndexing_ShouldReturnError_WhenSiteNotInConfig() {
+        when(sitesList.getSites()).thenReturn(Collections.emptyList());
+
+        IndexResponse response = siteIndexingService.startSiteIndexing("https://unknown.com");
+
+        assertFalse(response.isResult());
+        assertEquals("Сайт не указан в конфигурации: https://unknown.com", response.getError());
+    }
+
+    @Test
+    @DisplayName("Пауза и остановка одного сайта: возвращают ошибку, если обход сайта не идёт")
+    void pauseAndStopSite_ShouldReturnError_WhenSiteNotCrawling() {
+        IndexResponse pause = siteIndexingService.pauseSiteIndexing("https://example.com");
+        IndexResponse stop = siteIndexingService.stopSiteIndexing("https://example.com");
+
+        assertFalse(pause.isResult());
+        assertEquals("Обход сайта не выполняется", pause.getError());
+        assertFalse(stop.isResult());
+        assertEquals("Индексация сайта не запущена", stop.getError());
+    }
+
+    @Test
+    @DisplayName("Режим кластера: сайты выставляются арендами, локальные потоки не запускаются")
+    void startFullIndexing_ShouldOfferLeases_WhenClustered() {
+        cluster.setEnabled(true);
+        Site site = new Site();
+        site.setUrl("https://example.com/");
+        site.setName("Example");
+
+        when(sitesList.getSites()).thenReturn(List.of(site));
+        when(leaseRepository.count()).thenReturn(0L);
+
+        IndexResponse response = siteIndexingService.startFullIndexing();
+
+        assertTrue(response.isResult());
+        verify(leaseRepository).offer("https://example.com", false);
+        verifyNoInteractions(siteRepository);
+        assertFalse(siteIndexingService.isCrawling("https://example.com"));
+    }
+
+    @Test
+    @DisplayName("Аренда после остановки индексации: новый обход сайта не наследует остановку и доходит до конца")
+    void startLeasedSite_ShouldCrawl_AfterStopFullIndexing() throws Exception {
+        CrawlerSettings settings = new CrawlerSettings();
+        settings.setRobotsEnabled(false);
+        settings.setSitemapsEnabled(false);
+        settings.getCluster().setEnabled(true);
+        PageRepository pageRepository = mock(PageRepository.class);
+        PageFetcher pageFetcher = mock(PageFetcher.class);
+        when(pageFetcher.fetch(anyString(), any(), any()))
+                .thenAnswer(invocation -> new FetchResult(invocation.getArgument(0), 404, "text/html",
+                        null, null, null));
+        HostRateLimiter rateLimiter = new HostRateLimiter();
+        IndexingPipeline pipeline = new IndexingPipeline(settings);
+        SiteIndexingServiceImpl service = new SiteIndexingServiceImpl(pageRepository, siteRepository, sitesList,
+                mock(LemmaRepository.class), mock(SearchIndexRepository.class), mock(PageService.class),
+                rateLimiter, new CrawlExecutorFactory(settings), pageFetcher, settings, mock(SitemapReader.class),
+                checkpointRepository, new CrawlBudget(settings), new HostHealthRegistry(settings),
+                pipeline, new BufferPool(settings), leaseRepository);
+
+        Site site = new Site();
+        site.setUrl("https://example.com");
+        site.setName("Example");
+        when(sitesList.getSites()).thenReturn(List.of(site));
+        when(siteRepository.save(any())).thenAnswer(invocation -> {
+            SiteEntity entity = invocation.getArgument(0);
+            if (entity.getId() == null) entity.setId(1);
+            return entity;
+        });
+        when(siteRepository.existsByStatus(Status.INDEXING)).thenReturn(true);
+        when(siteRepository.findByStatus(Status.INDEXING)).thenReturn(List.of());
+
+        try {
+            assertTrue(service.stopFullIndexing().isResult());
+
+            CountDownLatch finished = new CountDownLatch(1);
+            assertTrue(service.startLeasedSite("https://example.com", false, finished::countDown));
+            assertTrue(finished.await(10, TimeUnit.SECONDS));
+
+            ArgumentCaptor<SiteEntity> saved = ArgumentCaptor.forClass(SiteEntity.class);
+            verify(siteRepository, atLeastOnce()).save(saved.capture());
+            SiteEntity last = saved.getValue();
+            assertEquals(Status.INDEXED, last.getStatus(), last.getLastError());
+            verify(pageFetcher).fetch(anyString(), any(), any());
+        } finally {
+            pipeline.shutdown();
+            rateLimiter.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Загрузка: таймаут считается сбоем хоста, а прерванная проба не блокирует хост — следующая проба проходит")
+    void fetchPage_ShouldRecoverHost_AfterInterruptedProbe() throws Exception {
+        CrawlerSettings settings = new CrawlerSettings();
+        settings.getCircuit().setFailureThreshold(1);
+        settings.getCircuit().setOpenDuration(Duration.ZERO);
+        PageFetcher pageFetcher = mock(PageFetcher.class);
+        when(pageFetcher.fetch(anyString(), any(), any()))
+                .thenThrow(new SocketTimeoutException("Read timed out"))
+                .thenThrow(new InterruptedIOException("Загрузка прервана"))
+                .thenReturn(new FetchResult("https://example.com/", 404, "text/html", null, null, null));
+        HostHealthRegistry hostHealth = new HostHealthRegistry(settings);
+        SiteIndexingServiceImpl service = new SiteIndexingServiceImpl(mock(PageRepository.class), siteRepository,
+                sitesList, mock(LemmaRepository.class), mock(SearchIndexRepository.class), mock(PageService.class),
+                null, null, pageFetcher, settings, mock(SitemapReader.class), checkpointRepository,
+                new CrawlBudget(settings), hostHealth, null, null, leaseRepository);
+        HostHealth health = hostHealth.of("example.com");
+
+        assertThrows(SocketTimeoutException.class, () -> service.fetchPage("https://example.com/", null, null));
+        assertEquals(HostHealth.State.OPEN, health.state());
+        assertTrue(service.isRetryable(new CrawlRequest("https://example.com/", "example.com", 0, false), new SocketTimeoutException()));
+
+        assertThrows(InterruptedIOException.class, () -> service.fetchPage("https://example.com/", null, null));
+        assertEquals(404, service.fetchPage("https://example.com/", null, null).statusCode());
+        assertEquals(HostHealth.State.CLOSED, health.state());
+    }
 }
@@ -0,0 +1,24 @@
+package searchengine.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import searchengine.crawler.EncodedContent;
+import searchengine.crawler.PageContent;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentHashTest {
+
+    @Test
+    @DisplayName("Хэш по байтам совпадает с прежним хэшем склеенной строки — сохранённые хэши остаются валидными")
+    void of_ShouldMatchConcatenatedHash() {
+        PageContent content = new PageContent("Заголовок", "текст страницы", List.of("https://a.ru/1", "https://a.ru/2"));
+
+        String expected = ContentHash.sha256("Заголовок\nтекст страницы\nhttps://a.ru/1\nhttps://a.ru/2");
+
+        assertEquals(expected, ContentHash.of(content));
+        assertEquals(expected, ContentHash.of(EncodedContent.of(content)));
+    }
+}
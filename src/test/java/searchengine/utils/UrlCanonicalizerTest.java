@@ -0,0 +1,70 @@
+package searchengine.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UrlCanonicalizerTest {
+
+    @Test
+    @DisplayName("Схема и хост в нижнем регистре, www, порт по умолчанию и userinfo убираются")
+    void canonicalUrl_ShouldNormalizeAuthority() {
+        assertEquals("https://example.com/Path",
+                UrlCanonicalizer.canonicalUrl("HTTPS://user:pw@WWW.Example.COM.:443/Path"));
+        assertEquals("http://example.com:8080/", UrlCanonicalizer.canonicalUrl("http://example.com:8080"));
+        assertEquals("https://mywww.example.com/", UrlCanonicalizer.canonicalUrl("https://mywww.example.com/"));
+    }
+
+    @Test
+    @DisplayName("Путь: точечные сегменты, завершающий слеш, query и fragment")
+    void canonicalUrl_ShouldNormalizePath() {
+        assertEquals("https://example.com/a/c",
+                UrlCanonicalizer.canonicalUrl("https://example.com/a/./b/../c/?x=1#top"));
+        assertEquals("https://example.com/", UrlCanonicalizer.canonicalUrl("https://example.com/../.."));
+        assertEquals("https://example.com/a/b", UrlCanonicalizer.canonicalUrl("https://example.com/a\\b"));
+    }
+
+    @Test
+    @DisplayName("Percent-encoding: незарезервированные декодируются, hex в верхнем регистре, UTF-8 для не-ASCII")
+    void canonicalUrl_ShouldNormalizePercentEncoding() {
+        assertEquals("https://example.com/a-b/%2F%3A",
+                UrlCanonicalizer.canonicalUrl("https://example.com/%61%2db/%2f%3a"));
+        assertEquals("https://example.com/%D0%BD%D0%BE%D0%B2%D0%BE%D1%81%D1%82%D0%B8",
+                UrlCanonicalizer.canonicalUrl("https://example.com/новости"));
+    }
+
+    @Test
+    @DisplayName("Не http(s) и относительные адреса отклоняются")
+    void canonicalUrl_ShouldRejectUnsupported() {
+        assertNull(UrlCanonicalizer.canonicalUrl("mailto:info@example.com"));
+        assertNull(UrlCanonicalizer.canonicalUrl("ftp://example.com/file"));
+        assertNull(UrlCanonicalizer.canonicalUrl("/relative/path"));
+        assertNull(UrlCanonicalizer.canonicalUrl("https:///nohost"));
+    }
+
+    @Test
+    @DisplayName("Эквивалентные адреса получают одинаковый отпечаток")
+    void canonicalize_ShouldGiveSameFingerprintForEquivalentUrls() {
+        UrlCanonicalizer.CanonicalUrl a = UrlCanonicalizer.canonicalize("https://www.example.com/news/");
+        UrlCanonicalizer.CanonicalUrl b = UrlCanonicalizer.canonicalize("https://EXAMPLE.com:443/news#latest");
+        UrlCanonicalizer.CanonicalUrl c = UrlCanonicalizer.canonicalize("https://example.com/new");
+
+        assertEquals(a, b);
+        assertNotEquals(a.fingerprint(), c.fingerprint());
+    }
+
+    @Test
+    @DisplayName("Принадлежность сайту проверяется по границе сегмента, расширение — по последнему сегменту")
+    void isWithinAndExtension() {
+        assertTrue(UrlCanonicalizer.isWithin("https://example.com/a", "https://example.com"));
+        assertTrue(UrlCanonicalizer.isWithin("https://example.com/blog/x", "https://example.com/blog"));
+        assertFalse(UrlCanonicalizer.isWithin("https://example.com.evil.org/a", "https://example.com"));
+        assertFalse(UrlCanonicalizer.isWithin("https://example.com/blogger", "https://example.com/blog"));
+
+        assertEquals(".pdf", UrlCanonicalizer.extension("https://example.com/doc/File.PDF"));
+        assertEquals("", UrlCanonicalizer.extension("https://example.com/v1.2/page"));
+        assertEquals("https://example.com", UrlCanonicalizer.origin("https://example.com/a/b"));
+        assertEquals("/a/b", UrlCanonicalizer.path("https://example.com/a/b"));
+    }
+}